@@ -0,0 +1,89 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal microbenchmark harness: it warms up an operation, then runs it for
+ * a fixed time and reports the throughput and the bytes allocated per
+ * operation by the measuring thread.
+ * 
+ * Parameters (system properties):
+ * <ul>
+ * <li>bench.warmup: warm-up time in ms (default 1000)</li>
+ * <li>bench.time: measurement time in ms (default 2000)</li>
+ * <li>bench.filter: run only the benchmarks whose name contains this string</li>
+ * </ul>
+ */
+public final class Harness {
+	private static final long WARMUP = Long.getLong("bench.warmup", 1000);
+	private static final long TIME = Long.getLong("bench.time", 2000);
+	private static final String FILTER = System.getProperty("bench.filter", "");
+	
+	// the results of the operations are accumulated here, so that they cannot be optimized away
+	private static volatile long sink;
+	
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	
+	private Harness() {
+	}
+	
+	/**
+	 * Measures an operation and prints one line with the results, unless it is
+	 * excluded by the filter.
+	 * 
+	 * @param name name of the benchmark
+	 * @param operation operation to measure, its result is consumed
+	 */
+	public static void run(String name, LongSupplier operation) {
+		if (!name.contains(FILTER))
+			return;
+		
+		// warm-up, also finds a batch lasting about 10 ms to keep the timer overhead low
+		long batch = 1;
+		long end = System.currentTimeMillis() + WARMUP;
+		do {
+			long start = System.nanoTime();
+			consume(operation, batch);
+			if (System.nanoTime() - start < 10_000_000)
+				batch *= 2;
+		} while (System.currentTimeMillis() < end);
+		
+		// measurement
+		long operations = 0;
+		long threadId = Thread.currentThread().getId();
+		long bytesBefore = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		long deadline = start + TIME * 1_000_000;
+		long now;
+		do {
+			consume(operation, batch);
+			operations += batch;
+			now = System.nanoTime();
+		} while (now < deadline);
+		long bytes = THREAD_BEAN.getThreadAllocatedBytes(threadId) - bytesBefore;
+		
+		double seconds = (now - start) / 1e9;
+		System.out.println(String.format("%-60s %16.1f ops/s %14.1f ns/op %12.1f B/op", name,
+				operations / seconds, seconds * 1e9 / operations, bytes / (double) operations));
+	}
+	
+	/**
+	 * Prints the header of the result table.
+	 * 
+	 * @param title title of the group of benchmarks
+	 */
+	public static void header(String title) {
+		System.out.println();
+		System.out.println("# " + title + " (warm-up " + WARMUP + " ms, measurement " + TIME + " ms)");
+	}
+	
+	private static void consume(LongSupplier operation, long times) {
+		long s = 0;
+		for (long i=0; i<times; i++)
+			s += operation.getAsLong();
+		sink += s;
+	}
+	
+}
@@ -0,0 +1,146 @@
+package benchmark;
+
+import java.util.Random;
+
+import generator.CompiledProblem;
+import generator.Generator;
+import generator.Problem;
+import generator.Solution;
+
+/**
+ * Problem sets used by the benchmarks. The first four have the same ranges as
+ * the problem sets in Main, the last one is a scaled-up set. Problems and
+ * solutions are generated with fixed seeds, so that the results are
+ * comparable across commits.
+ */
+public final class ProblemSets {
+	public static final String[] NAMES = { "set0", "set1", "set2", "set3", "large" };
+	public static final long SEED = 42;
+	
+	// size sweep for the solver operators: the sets of Main, then calendars up to 100x50
+	public static final String[] SWEEP = { "set0", "set1", "set2", "set3", "25x10", "50x25", "100x50" };
+	
+	private ProblemSets() {
+	}
+	
+	/**
+	 * Creates the generator of a problem set.
+	 * 
+	 * @param set index of the problem set in NAMES
+	 * @param seed seed of the generator
+	 * @return generator
+	 */
+	public static Generator generator(int set, long seed) {
+		switch (set) {
+		case 0:
+			return new Generator(new int[] { 10, 15 }, new int[] { 7, 10 }, new int[] { 1, 6 }, new int[] { 3, 5 },
+					new int[] { 3, 5 }, new int[] { 3, 5 }, new int[] { 3, 5 }, seed);
+		case 1:
+			return new Generator(new int[] { 20, 30 }, new int[] { 7, 10 }, new int[] { 1, 5 }, new int[] { 5, 6 },
+					new int[] { 3, 5 }, new int[] { 3, 5 }, new int[] { 3, 5 }, seed);
+		case 2:
+			return new Generator(new int[] { 10, 15 }, new int[] { 7, 10 }, new int[] { 20, 50 }, new int[] { 5, 8 },
+					new int[] { 3, 5 }, new int[] { 3, 5 }, new int[] { 3, 5 }, seed);
+		case 3:
+			return new Generator(new int[] { 20, 30 }, new int[] { 7, 10 }, new int[] { 5, 12 }, new int[] { 4, 5 },
+					new int[] { 5, 7 }, new int[] { 3, 7 }, new int[] { 5, 10 }, seed);
+		case 4:
+			return new Generator(new int[] { 3000, 4000 }, new int[] { 200, 300 }, new int[] { 40, 50 },
+					new int[] { 6, 8 }, new int[] { 20, 30 }, new int[] { 3, 7 }, new int[] { 5, 10 }, seed);
+		default:
+			throw new IllegalArgumentException("No problem set " + set);
+		}
+	}
+	
+	/**
+	 * Generates a problem with a calendar of the given size. The number of
+	 * courses and students grows with the calendar, so that about 3/4 of the
+	 * cells are needed.
+	 * 
+	 * @param timeslotCount number of time slots
+	 * @param classroomCount number of classrooms
+	 * @return problem
+	 */
+	public static Problem calendar(int timeslotCount, int classroomCount) {
+		int courses = Math.max(1, timeslotCount * classroomCount / 10);
+		return new Generator(new int[] { courses * 10, courses * 10 + 1 }, new int[] { courses, courses + 1 },
+				new int[] { timeslotCount, timeslotCount + 1 }, new int[] { 1, 2 },
+				new int[] { classroomCount, classroomCount + 1 }, new int[] { 3, 7 }, new int[] { 5, 10 }, SEED)
+				.generate();
+	}
+	
+	/**
+	 * Generates the problem of a set with the default seed.
+	 * 
+	 * @param set index of the problem set in NAMES
+	 * @return problem
+	 */
+	public static Problem problem(int set) {
+		return generator(set, SEED).generate();
+	}
+	
+	/**
+	 * Generates the problem of a step of the size sweep.
+	 * 
+	 * @param step index of the step in SWEEP
+	 * @return problem
+	 */
+	public static Problem sweep(int step) {
+		if (step < 4)
+			return problem(step);
+		String[] size = SWEEP[step].split("x");
+		return calendar(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+	}
+	
+	/**
+	 * Generates random schedules with all the desired lectures, placed in random
+	 * cells (possibly with infeasible lectures and overlaps).
+	 * 
+	 * @param problem problem
+	 * @param count number of schedules
+	 * @param seed seed
+	 * @return schedules
+	 */
+	public static Solution[] solutions(CompiledProblem problem, int count, long seed) {
+		Random random = new Random(seed);
+		int timeslotCount = problem.getTimeslotsCount();
+		int classroomCount = problem.getClassroomCount();
+		int[] cells = new int[timeslotCount * classroomCount];
+		Solution[] solutions = new Solution[count];
+		
+		for (int i=0; i<count; i++) {
+			// lectures in the first cells, then shuffle
+			int n = 0;
+			for (int c=0; c<problem.getCourseCount(); c++)
+				for (int l=0; l<problem.getLecturesPerCourse()[c]; l++)
+					cells[n++] = c + 1;
+			while (n < cells.length)
+				cells[n++] = 0;
+			for (int j=cells.length-1; j>0; j--) {
+				int k = random.nextInt(j + 1);
+				int aux = cells[j];
+				cells[j] = cells[k];
+				cells[k] = aux;
+			}
+			
+			solutions[i] = new Solution(timeslotCount, classroomCount, problem.getCourseCount());
+			for (int t=0; t<timeslotCount; t++)
+				for (int cl=0; cl<classroomCount; cl++)
+					solutions[i].set(t, cl, cells[t * classroomCount + cl]);
+		}
+		
+		return solutions;
+	}
+	
+	/**
+	 * Describes the size of a problem.
+	 * 
+	 * @param problem problem
+	 * @return description
+	 */
+	public static String describe(CompiledProblem problem) {
+		return "T=" + problem.getTimeslotsCount() + " CL=" + problem.getClassroomCount() + " C="
+				+ problem.getCourseCount() + " G=" + problem.getGroupCount();
+	}
+	
+}
@@ -0,0 +1,64 @@
+package generator;
+
+import benchmark.Harness;
+import benchmark.ProblemSets;
+
+/**
+ * Benchmarks of the evaluator: the public methods and the counters they are
+ * made of, for each problem set and evaluation mode.
+ */
+public class EvaluatorBenchmark {
+	// number of schedules evaluated in turn, so that the benchmark does not see always the same data
+	private static final int SOLUTIONS = 16;
+	
+	public static void main(String[] args) {
+		for (int set=0; set<ProblemSets.NAMES.length; set++) {
+			CompiledProblem problem = ProblemSets.problem(set).compile();
+			Solution[] solutions = ProblemSets.solutions(problem, SOLUTIONS, ProblemSets.SEED);
+			Harness.header("Evaluator, " + ProblemSets.NAMES[set] + " (" + ProblemSets.describe(problem) + ")");
+			
+			for (Evaluator.Mode mode : Evaluator.Mode.values()) {
+				Evaluator evaluator = new Evaluator(problem, mode);
+				Evaluator.Scratch s = evaluator.scratch();
+				String prefix = ProblemSets.NAMES[set] + "." + evaluator.getMode() + ".";
+				int[] next = { 0 };
+				
+				Harness.run(prefix + "evaluate", () -> evaluator.evaluate(pick(solutions, next)));
+				Harness.run(prefix + "evaluateDetailed",
+						() -> evaluator.evaluateDetailed(pick(solutions, next)).getScore());
+				Harness.run(prefix + "countTakenLectures",
+						() -> evaluator.countTakenLectures(pick(solutions, next), s));
+				Harness.run(prefix + "countOverlaps", () -> evaluator.countOverlaps(pick(solutions, next), s));
+				Harness.run(prefix + "countAll", () -> {
+					evaluator.countAll(pick(solutions, next), s);
+					return s.takenLectures;
+				});
+				
+				// the following do not depend on the mode
+				if (mode != Evaluator.Mode.SCAN)
+					continue;
+				Harness.run(prefix + "percentageInfeasibleLectures",
+						() -> (long) evaluator.percentageInfeasibleLectures(pick(solutions, next)));
+				Harness.run(prefix + "percentageScheduledLectures",
+						() -> (long) evaluator.percentageScheduledLectures(pick(solutions, next)));
+				Harness.run(prefix + "percentageOverlaps",
+						() -> (long) evaluator.percentageOverlaps(pick(solutions, next)));
+				Harness.run(prefix + "percentageCoursesWithRightNumberOfLectures",
+						() -> (long) evaluator.percentageCoursesWithRightNumberOfLectures(pick(solutions, next)));
+				Harness.run(prefix + "countInfeasibleLectures",
+						() -> evaluator.countInfeasibleLectures(pick(solutions, next), s));
+				Harness.run(prefix + "countScheduledLectures",
+						() -> evaluator.countScheduledLectures(pick(solutions, next)));
+				Harness.run(prefix + "countScheduledLecturesPerCourse",
+						() -> evaluator.countScheduledLecturesPerCourse(pick(solutions, next), s)[0]);
+			}
+		}
+	}
+	
+	private static Solution pick(Solution[] solutions, int[] next) {
+		Solution solution = solutions[next[0]];
+		next[0] = (next[0] + 1) % solutions.length;
+		return solution;
+	}
+	
+}
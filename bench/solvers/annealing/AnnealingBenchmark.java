@@ -0,0 +1,53 @@
+package solvers.annealing;
+
+import java.util.SplittableRandom;
+
+import benchmark.Harness;
+import benchmark.ProblemSets;
+import generator.CompiledProblem;
+import generator.Evaluator;
+import generator.IncrementalEvaluator;
+import generator.Problem;
+
+/**
+ * Benchmarks of the operators of simulated annealing, from the problem sets of
+ * Main up to a 100x50 calendar. Each move is applied and then undone, as for a
+ * rejected move, with each operator and with the operator chosen at random.
+ */
+public class AnnealingBenchmark {
+	
+	public static void main(String[] args) {
+		for (int i=0; i<ProblemSets.SWEEP.length; i++) {
+			Problem problem = ProblemSets.sweep(i);
+			Evaluator evaluator = new Evaluator(problem);
+			CompiledProblem compiled = evaluator.getCompiledProblem();
+			Annealing annealing = new Annealing(100, 0.01, problem, evaluator, ProblemSets.SEED);
+			IncrementalEvaluator incremental = new IncrementalEvaluator(compiled);
+			incremental.bind(annealing.init());
+			String prefix = ProblemSets.SWEEP[i] + ".";
+			Harness.header("Annealing, " + ProblemSets.SWEEP[i] + " (" + ProblemSets.describe(compiled) + ")");
+			
+			Harness.run(prefix + "init", () -> annealing.init().get(0, 0));
+			for (MoveEngine.Operator operator : MoveEngine.Operator.values()) {
+				MoveEngine moves = new MoveEngine(incremental, compiled, new double[] { 1, 1, 1, 1 },
+						new SplittableRandom(ProblemSets.SEED));
+				Harness.run(prefix + operator + "+undo", () -> {
+					moves.apply(operator);
+					int score = incremental.getScore();
+					moves.undo();
+					return score;
+				});
+			}
+			// operator chosen according to the probabilities, as in the annealing loop
+			MoveEngine moves = new MoveEngine(incremental, compiled, new double[] { 1, 1, 1, 1 },
+					new SplittableRandom(ProblemSets.SEED));
+			Harness.run(prefix + "mixed+undo", () -> {
+				moves.apply();
+				int score = incremental.getScore();
+				moves.undo();
+				return score;
+			});
+		}
+	}
+	
+}
@@ -0,0 +1,63 @@
+package solvers.genetic;
+
+import java.util.SplittableRandom;
+
+import benchmark.Harness;
+import benchmark.ProblemSets;
+import generator.CompiledProblem;
+import generator.Evaluator;
+import generator.Problem;
+
+/**
+ * Benchmarks of the operators of the genetic algorithm, from the problem sets
+ * of Main up to a 100x50 calendar.
+ * 
+ * repair() is the full repair of the random chromosomes, measured on
+ * chromosomes that are already valid: it always scans the whole schedule, so
+ * the cost does not depend on how much is repaired. Offspring and mutations
+ * are repaired incrementally, within new(x,y) and mutate.
+ */
+public class ChromosomeBenchmark {
+	// number of chromosomes used in turn
+	private static final int CHROMOSOMES = 16;
+	
+	public static void main(String[] args) {
+		for (int i=0; i<ProblemSets.SWEEP.length; i++) {
+			Problem problem = ProblemSets.sweep(i);
+			Evaluator evaluator = new Evaluator(problem);
+			CompiledProblem compiled = evaluator.getCompiledProblem();
+			SplittableRandom random = new SplittableRandom(ProblemSets.SEED);
+			Chromosome[] chromosomes = new Chromosome[CHROMOSOMES];
+			for (int c=0; c<CHROMOSOMES; c++)
+				chromosomes[c] = new Chromosome(evaluator, random);
+			String prefix = ProblemSets.SWEEP[i] + ".";
+			int[] next = { 0 };
+			Harness.header("Chromosome, " + ProblemSets.SWEEP[i] + " (" + ProblemSets.describe(compiled) + ")");
+			
+			Harness.run(prefix + "new(evaluator)", () -> new Chromosome(evaluator, random).getFitnessValue());
+			Harness.run(prefix + "new(x,y)",
+					() -> new Chromosome(pick(chromosomes, next), pick(chromosomes, next)).getFitnessValue());
+			Harness.run(prefix + "mutate", () -> {
+				Chromosome x = pick(chromosomes, next);
+				x.mutate();
+				return x.getFitnessValue();
+			});
+			Harness.run(prefix + "crossover", () -> pick(chromosomes, next).crossover(pick(chromosomes, next),
+					pick(chromosomes, next), random.nextInt(compiled.getTimeslotsCount())).length);
+			Harness.run(prefix + "repair", () -> {
+				Chromosome x = pick(chromosomes, next);
+				x.repair();
+				return x.getFitnessValue();
+			});
+			Harness.run(prefix + "toGenes", () -> pick(chromosomes, next).toGenes().length);
+			Harness.run(prefix + "toSolution", () -> pick(chromosomes, next).toSolution().get(0, 0));
+		}
+	}
+	
+	private static Chromosome pick(Chromosome[] chromosomes, int[] next) {
+		Chromosome chromosome = chromosomes[next[0]];
+		next[0] = (next[0] + 1) % chromosomes.length;
+		return chromosome;
+	}
+	
+}
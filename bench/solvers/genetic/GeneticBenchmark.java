@@ -0,0 +1,38 @@
+package solvers.genetic;
+
+import benchmark.Harness;
+import benchmark.ProblemSets;
+import generator.Evaluator;
+import generator.Problem;
+
+/**
+ * Benchmarks of one generation of GA (selection, crossover, mutation and
+ * repair of the whole population, produced in the calling thread), with and
+ * without elitism. The allocation per generation shows the garbage produced
+ * in a long run.
+ */
+public class GeneticBenchmark {
+	private static final int POPULATION_SIZE = 100;
+	private static final double MUTATION_PROBABILITY = 0.1;
+	private static final int[] ELITISM = { 0, 2 };
+	
+	public static void main(String[] args) {
+		for (int i=0; i<ProblemSets.SWEEP.length; i++) {
+			Problem problem = ProblemSets.sweep(i);
+			Evaluator evaluator = new Evaluator(problem);
+			Harness.header("Genetic, " + ProblemSets.SWEEP[i] + " ("
+					+ ProblemSets.describe(evaluator.getCompiledProblem()) + "), population " + POPULATION_SIZE);
+			
+			for (int elitism : ELITISM) {
+				Genetic genetic = new Genetic(problem, evaluator, POPULATION_SIZE, MUTATION_PROBABILITY,
+						Integer.MAX_VALUE, Long.MAX_VALUE, ProblemSets.SEED);
+				genetic.setElitism(elitism);
+				Harness.run(ProblemSets.SWEEP[i] + ".elitism" + elitism + ".generation", () -> {
+					genetic.evolve();
+					return genetic.getBestChromosome().getFitnessValue();
+				});
+			}
+		}
+	}
+	
+}
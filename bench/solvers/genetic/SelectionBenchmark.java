@@ -0,0 +1,39 @@
+package solvers.genetic;
+
+import java.util.SplittableRandom;
+
+import benchmark.Harness;
+import benchmark.ProblemSets;
+import generator.Evaluator;
+
+/**
+ * Benchmarks of the selection strategies of GA: one generation (preparation
+ * and as many selections as offspring need), for growing populations.
+ */
+public class SelectionBenchmark {
+	private static final int[] POPULATION_SIZES = { 100, 1000, 5000 };
+	
+	public static void main(String[] args) {
+		Evaluator evaluator = new Evaluator(ProblemSets.problem(3));
+		SplittableRandom random = new SplittableRandom(ProblemSets.SEED);
+		
+		for (int size : POPULATION_SIZES) {
+			Chromosome[] population = new Chromosome[size];
+			for (int i=0; i<size; i++)
+				population[i] = new Chromosome(evaluator, random);
+			Harness.header("Selection, population " + size);
+			
+			Selection[] strategies = { new RouletteSelection(), new TournamentSelection(3), new RankSelection() };
+			for (Selection selection : strategies) {
+				Harness.run(size + "." + selection.getClass().getSimpleName() + ".generation", () -> {
+					selection.prepare(population);
+					long s = 0;
+					for (int i=0; i<2*size; i++)
+						s += selection.select(population, random).getFitnessValue();
+					return s;
+				});
+			}
+		}
+	}
+	
+}
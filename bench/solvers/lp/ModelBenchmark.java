@@ -0,0 +1,22 @@
+package solvers.lp;
+
+import benchmark.Harness;
+import benchmark.ProblemSets;
+import generator.CompiledProblem;
+
+/**
+ * Benchmark of the construction of the ILP model (without solving it), for
+ * growing problems.
+ */
+public class ModelBenchmark {
+	
+	public static void main(String[] args) {
+		for (int i=0; i<ProblemSets.SWEEP.length; i++) {
+			CompiledProblem problem = ProblemSets.sweep(i).compile();
+			ILP ilp = new ILP(problem);
+			Harness.header(ProblemSets.SWEEP[i] + " (" + ProblemSets.describe(problem) + ")");
+			Harness.run(ProblemSets.SWEEP[i] + ".build", () -> ilp.buildModel().getNonZeroCount());
+		}
+	}
+	
+}
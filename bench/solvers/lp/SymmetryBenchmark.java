@@ -0,0 +1,132 @@
+package solvers.lp;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import benchmark.ProblemSets;
+import generator.CompiledProblem;
+import generator.Evaluator;
+import generator.Solution;
+import solvers.lp.ILP.SymmetryBreaking;
+
+/**
+ * Benchmark of the symmetry breaking of ILP: the problem sets of Main are
+ * solved with each strategy, reporting the solving time and the score. The
+ * MIP may not converge and GLPK cannot be interrupted, so every run is a
+ * separate JVM, killed after a time limit.
+ *
+ * Parameters (system properties):
+ * <ul>
+ * <li>bench.ilp.time: time limit of a run in s (default 120)</li>
+ * <li>bench.filter: run only the benchmarks whose name contains this string
+ * (e.g. <code>-Dbench.filter=set0</code>)</li>
+ * </ul>
+ */
+public class SymmetryBenchmark {
+	private static final long TIME = Long.getLong("bench.ilp.time", 120);
+	private static final String FILTER = System.getProperty("bench.filter", "");
+
+	// prefix of the line with the result of a run
+	private static final String RESULT = "result ";
+
+	// the problem sets of Main, the large one is out of reach
+	private static final int SETS = 4;
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length == 2) {
+			solve(Integer.parseInt(args[0]), SymmetryBreaking.valueOf(args[1]));
+			return;
+		}
+
+		for (int set=0; set<SETS; set++) {
+			CompiledProblem problem = ProblemSets.problem(set).compile();
+			System.out.println();
+			System.out.println("# " + ProblemSets.NAMES[set] + " (" + ProblemSets.describe(problem) + ", time limit "
+					+ TIME + " s)");
+			for (SymmetryBreaking symmetryBreaking : SymmetryBreaking.values()) {
+				String name = ProblemSets.NAMES[set] + "." + symmetryBreaking;
+				if (name.contains(FILTER))
+					System.out.println(String.format("%-60s %s", name, fork(set, symmetryBreaking)));
+			}
+		}
+	}
+
+	/**
+	 * Solves a problem set in a new JVM with the same options.
+	 *
+	 * @return result line of the run, or the time limit if it is killed
+	 */
+	private static String fork(int set, SymmetryBreaking symmetryBreaking) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(SymmetryBenchmark.class.getName());
+		command.add(Integer.toString(set));
+		command.add(symmetryBreaking.name());
+
+		// the output of GLPK goes to a file, so that the run never blocks on a full pipe
+		File output = File.createTempFile("ilp", ".log");
+		try {
+			Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(output).start();
+			if (!process.waitFor(TIME, TimeUnit.SECONDS)) {
+				// terminated gently first, so that the buffered output of GLPK is flushed
+				process.destroy();
+				if (!process.waitFor(5, TimeUnit.SECONDS))
+					process.destroyForcibly().waitFor();
+				return String.format("%8s   %s", "> " + TIME + " s", lastProgress(output));
+			}
+			for (String line : Files.readAllLines(output.toPath()))
+				if (line.startsWith(RESULT))
+					return line.substring(RESULT.length());
+			return "failed (exit code " + process.exitValue() + ")";
+		} finally {
+			output.delete();
+		}
+	}
+
+	/**
+	 * Finds the last progress line of the branch and bound of GLPK, e.g.
+	 * "+372592: mip = 2.8e+01 &gt;= 1.8e+01 35.7% (33599; 1268)".
+	 *
+	 * @return best integer solution, bound and gap
+	 */
+	private static String lastProgress(File output) throws IOException {
+		String last = null;
+		for (String line : Files.readAllLines(output.toPath()))
+			if (line.contains("mip ="))
+				last = line;
+		if (last == null)
+			return "no integer solution";
+		String[] fields = last.substring(last.indexOf('=') + 1).trim().split("\\s+");
+		if (fields.length < 4 || fields[0].equals("not"))
+			return "no integer solution";
+		return String.format("objective %.0f, bound %.0f, gap %s", Double.parseDouble(fields[0]),
+				Double.parseDouble(fields[2]), fields[3]);
+	}
+
+	private static void solve(int set, SymmetryBreaking symmetryBreaking) {
+		CompiledProblem problem = ProblemSets.problem(set).compile();
+		ILP ilp = new ILP(problem);
+		ilp.setSymmetryBreaking(symmetryBreaking);
+		LinearModel model = ilp.buildModel();
+
+		long start = System.nanoTime();
+		Solution solution = ilp.solve();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		if (solution == null) {
+			System.out.println(RESULT + String.format("%8.2f s   no integer solution", seconds));
+			return;
+		}
+		System.out.println(RESULT + String.format("%8.2f s %12d score %8d rows %10d non-zeros", seconds,
+				new Evaluator(problem).evaluate(solution), model.getRowCount(), model.getNonZeroCount()));
+	}
+
+}
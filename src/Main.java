@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
+import generator.EvaluationReport;
 import generator.Evaluator;
 import generator.Generator;
 import generator.Problem;
@@ -24,7 +25,7 @@ import solvers.lp.ILP;
  */
 public class Main {
 	/*
-	 * You need to touch only this the following two constants.
+	 * You need to touch only the following constants.
 	 * 
 	 * ILP: true to run ILP on a already-generated problem, false to generate
 	 * problems and run GA and SA.
@@ -32,9 +33,14 @@ public class Main {
 	 * ILP_PROBLEM: if ILP=true, it indicates the name of the file containing the
 	 * problem. The files are output in the following format: "problem_i_j.txt",
 	 * where i is the problem set and j the test case.
+	 * 
+	 * ILP_MAX_TIME: if ILP=true, time limit of ILP in ms (0 for no limit), the
+	 * best solution found is saved when it is reached (nothing is saved if no
+	 * solution was found).
 	 */
 	private static final boolean ILP = false;
 	private static final String ILP_PROBLEM = "problem_0_1.txt";
+	private static final long ILP_MAX_TIME = 600000;
 	
 	private static final String OUTPUT_DIR = "output/";
 	private static final int TEST_CASES = 5;	// number of test cases for each problem set, generated when ILP=false
@@ -98,20 +104,27 @@ public class Main {
     		Problem problem = readProblem(OUTPUT_DIR + ILP_PROBLEM);
     		Evaluator evaluator = new Evaluator(problem);
     		Performance performance = new Performance();
-    		performance.solver = new ILP(problem);
+    		ILP ilp = new ILP(problem);
+    		ilp.setMaxTime(ILP_MAX_TIME);
+    		performance.solver = ilp;
     		String endName = "ilp_" + ILP_PROBLEM.split("_")[1] + "_" + ILP_PROBLEM.split("_")[2].replace(".txt", "");
     		long start = System.currentTimeMillis();
     		Solution solution = performance.solver.solve();
     		long end = System.currentTimeMillis();
+    		if (solution == null) {
+    			System.out.println("ILP found no solution within the time limit");
+    			return;
+    		}
 			saveSolution(solution, problem, OUTPUT_DIR + "solution_" + endName + ".csv");
     		
     		// get performance
+    		EvaluationReport report = evaluator.evaluateDetailed(solution);
     		performance.time = end - start;
-            performance.score = evaluator.evaluate(solution);
-            performance.percentageInfeasibleLectures = evaluator.percentageInfeasibleLectures(solution);
-            performance.percentageScheduledLectures = evaluator.percentageScheduledLectures(solution);
-            performance.percentageOverlaps = evaluator.percentageOverlaps(solution);
-            performance.percentageCoursesWithRightNumberOfLectures = evaluator.percentageCoursesWithRightNumberOfLectures(solution);
+            performance.score = report.getScore();
+            performance.percentageInfeasibleLectures = report.getPercentageInfeasibleLectures();
+            performance.percentageScheduledLectures = report.getPercentageScheduledLectures();
+            performance.percentageOverlaps = report.getPercentageOverlaps();
+            performance.percentageCoursesWithRightNumberOfLectures = report.getPercentageCoursesWithRightNumberOfLectures();
             
             // save performance
             Map<String, Performance> pMap = new HashMap<>();
@@ -161,12 +174,13 @@ public class Main {
                     long end = System.currentTimeMillis();
                     
                     // update performance
+                    EvaluationReport report = evaluator.evaluateDetailed(solution);
                     p.time += end - start;
-                    p.score += evaluator.evaluate(solution);
-                    p.percentageInfeasibleLectures += evaluator.percentageInfeasibleLectures(solution);
-                    p.percentageScheduledLectures += evaluator.percentageScheduledLectures(solution);
-                    p.percentageOverlaps += evaluator.percentageOverlaps(solution);
-                    p.percentageCoursesWithRightNumberOfLectures += evaluator.percentageCoursesWithRightNumberOfLectures(solution);
+                    p.score += report.getScore();
+                    p.percentageInfeasibleLectures += report.getPercentageInfeasibleLectures();
+                    p.percentageScheduledLectures += report.getPercentageScheduledLectures();
+                    p.percentageOverlaps += report.getPercentageOverlaps();
+                    p.percentageCoursesWithRightNumberOfLectures += report.getPercentageCoursesWithRightNumberOfLectures();
                 }
     		}
     		
@@ -0,0 +1,33 @@
+package generator;
+
+/**
+ * Scalar implementation of the coverage: AND of the group mask with the time
+ * slot mask, word by word, plus a non-zero test.
+ */
+class BitsetCoverageKernel implements CoverageKernel {
+	private final CompiledProblem problem;
+	
+	BitsetCoverageKernel(CompiledProblem problem) {
+		this.problem = problem;
+	}
+
+	@Override
+	public int coveredGroupSize(long[] timeslotMask) {
+		int total = 0;
+		int groupCount = problem.getGroupCount();
+		int maskWords = problem.getMaskWords();
+		
+		for (int g=0; g<groupCount; g++) {
+			long[] groupMask = problem.getGroupMask(g);
+			for (int w=0; w<maskWords; w++) {
+				if ((groupMask[w] & timeslotMask[w]) != 0) {
+					total += problem.getGroupSize(g);
+					break;	// next group, this group cannot take other lectures
+				}
+			}
+		}
+		
+		return total;
+	}
+	
+}
@@ -0,0 +1,165 @@
+package generator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, primitive-only view of a problem, built once and shared by the
+ * evaluator and the solvers. The student groups are stored as sorted arrays of
+ * course IDs and as bitmasks, so that no boxing or hash iteration is needed
+ * while evaluating a solution.
+ *
+ * Course IDs start from 1 as in {@link Problem}, while the arrays indexed by
+ * course use the index course-1 and bit course-1 in the masks.
+ */
+public final class CompiledProblem {
+	private final int timeslotsCount;
+	private final int classroomCount;
+	private final int courseCount;
+	private final int groupCount;
+
+	// number of lectures for courses (index course-1)
+	private final int[] lecturesPerCourse;
+
+	// sorted course IDs taken by each group
+	private final int[][] groupCourses;
+
+	// size of each group
+	private final int[] groupSizes;
+
+	// inverted index: groups enrolled in each course and their sizes (index course-1)
+	private final int[][] courseGroups;
+	private final int[][] courseGroupSizes;
+
+	// courses taken by each group as bitmask ([group][word])
+	private final long[][] groupMasks;
+
+	// number of 64-bit words of a course mask
+	private final int maskWords;
+
+	private final int totalLectures;
+	private final int totalEnrolledLectures;
+
+	public CompiledProblem(Problem problem) {
+		Map<List<Integer>, Integer> studentGroups = problem.getStudentGroups();
+
+		this.timeslotsCount = problem.getTimeslotsCount();
+		this.classroomCount = problem.getClassroomCount();
+		this.courseCount = problem.getCourseCount();
+		this.groupCount = studentGroups.size();
+		this.lecturesPerCourse = Arrays.copyOf(problem.getLecturesPerCourse(), courseCount);
+		this.maskWords = (courseCount + 63) >>> 6;
+		this.groupCourses = new int[groupCount][];
+		this.groupSizes = new int[groupCount];
+		this.groupMasks = new long[groupCount][maskWords];
+
+		int g = 0;
+		int enrolled = 0;
+		for (Map.Entry<List<Integer>, Integer> e : studentGroups.entrySet()) {
+			int[] courses = e.getKey().stream().mapToInt(Integer::intValue).toArray();
+			Arrays.sort(courses);
+			groupCourses[g] = courses;
+			groupSizes[g] = e.getValue();
+			for (int course : courses) {
+				groupMasks[g][(course-1) >>> 6] |= 1L << (course-1);
+				enrolled += groupSizes[g] * lecturesPerCourse[course-1];
+			}
+			g++;
+		}
+
+		// invert the groups: course -> groups enrolled
+		int[] enrolledGroups = new int[courseCount];
+		for (g=0; g<groupCount; g++)
+			for (int course : groupCourses[g])
+				enrolledGroups[course-1]++;
+		this.courseGroups = new int[courseCount][];
+		this.courseGroupSizes = new int[courseCount][];
+		for (int c=0; c<courseCount; c++) {
+			courseGroups[c] = new int[enrolledGroups[c]];
+			courseGroupSizes[c] = new int[enrolledGroups[c]];
+		}
+		Arrays.fill(enrolledGroups, 0);
+		for (g=0; g<groupCount; g++) {
+			for (int course : groupCourses[g]) {
+				int i = enrolledGroups[course-1]++;
+				courseGroups[course-1][i] = g;
+				courseGroupSizes[course-1][i] = groupSizes[g];
+			}
+		}
+
+		this.totalLectures = Arrays.stream(lecturesPerCourse).sum();
+		this.totalEnrolledLectures = enrolled;
+	}
+
+
+	/*
+	 * Getters (arrays are shared, callers must not modify them)
+	 */
+
+	public int getTimeslotsCount() {
+		return timeslotsCount;
+	}
+
+	public int getClassroomCount() {
+		return classroomCount;
+	}
+
+	public int getCourseCount() {
+		return courseCount;
+	}
+
+	public int getGroupCount() {
+		return groupCount;
+	}
+
+	public int[] getLecturesPerCourse() {
+		return lecturesPerCourse;
+	}
+
+	public int[] getGroupCourses(int group) {
+		return groupCourses[group];
+	}
+
+	public int getGroupSize(int group) {
+		return groupSizes[group];
+	}
+
+	public int[] getGroupSizes() {
+		return groupSizes;
+	}
+
+	/**
+	 * @param course course ID (from 1)
+	 * @return groups enrolled in the course, in increasing order
+	 */
+	public int[] getCourseGroups(int course) {
+		return courseGroups[course-1];
+	}
+
+	/**
+	 * @param course course ID (from 1)
+	 * @return sizes of the groups enrolled in the course, aligned with
+	 *         {@link #getCourseGroups(int)}
+	 */
+	public int[] getCourseGroupSizes(int course) {
+		return courseGroupSizes[course-1];
+	}
+
+	public long[] getGroupMask(int group) {
+		return groupMasks[group];
+	}
+
+	public int getMaskWords() {
+		return maskWords;
+	}
+
+	public int getTotalLectures() {
+		return totalLectures;
+	}
+
+	public int getTotalEnrolledLectures() {
+		return totalEnrolledLectures;
+	}
+
+}
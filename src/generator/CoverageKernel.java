@@ -0,0 +1,16 @@
+package generator;
+
+/**
+ * Computes, for one time slot, the sum of the sizes of the student groups that
+ * can take a lecture, i.e. the groups whose course mask intersects the mask of
+ * the courses scheduled in the time slot.
+ */
+interface CoverageKernel {
+	
+	/**
+	 * @param timeslotMask courses scheduled in the time slot (bit course-1)
+	 * @return sum of the sizes of the groups that can take a lecture
+	 */
+	int coveredGroupSize(long[] timeslotMask);
+	
+}
@@ -0,0 +1,93 @@
+package generator;
+
+/**
+ * Immutable breakdown of the evaluation of a solution, computed by
+ * {@link Evaluator#evaluateDetailed(Solution)}.
+ */
+public final class EvaluationReport {
+	private final int score;
+	private final int takenLectures;
+	private final int overlaps;
+	private final int infeasibleLectures;
+	private final int scheduledLectures;
+	private final int coursesWithRightNumberOfLectures;
+	private final double percentageInfeasibleLectures;
+	private final double percentageScheduledLectures;
+	private final double percentageOverlaps;
+	private final double percentageCoursesWithRightNumberOfLectures;
+	
+	EvaluationReport(int score, int takenLectures, int overlaps, int infeasibleLectures, int scheduledLectures,
+			int coursesWithRightNumberOfLectures, double percentageInfeasibleLectures,
+			double percentageScheduledLectures, double percentageOverlaps,
+			double percentageCoursesWithRightNumberOfLectures) {
+		this.score = score;
+		this.takenLectures = takenLectures;
+		this.overlaps = overlaps;
+		this.infeasibleLectures = infeasibleLectures;
+		this.scheduledLectures = scheduledLectures;
+		this.coursesWithRightNumberOfLectures = coursesWithRightNumberOfLectures;
+		this.percentageInfeasibleLectures = percentageInfeasibleLectures;
+		this.percentageScheduledLectures = percentageScheduledLectures;
+		this.percentageOverlaps = percentageOverlaps;
+		this.percentageCoursesWithRightNumberOfLectures = percentageCoursesWithRightNumberOfLectures;
+	}
+	
+	@Override
+	public String toString() {
+		return "Score: " + score + "\n"
+				+ String.format("Percentage infeasible lectures: %.2f\n", percentageInfeasibleLectures)
+				+ String.format("Percentage scheduled lectures: %.2f\n", percentageScheduledLectures)
+				+ String.format("Percentage overlaps: %.2f\n", percentageOverlaps)
+				+ String.format("Percentage courses with right number of lectures: %.2f\n",
+						percentageCoursesWithRightNumberOfLectures);
+	}
+	
+	
+	/*
+	 * Getters
+	 */
+	
+	/**
+	 * @return goodness of the solution, as {@link Evaluator#evaluate(Solution)}
+	 */
+	public int getScore() {
+		return score;
+	}
+	
+	public int getTakenLectures() {
+		return takenLectures;
+	}
+	
+	public int getOverlaps() {
+		return overlaps;
+	}
+	
+	public int getInfeasibleLectures() {
+		return infeasibleLectures;
+	}
+	
+	public int getScheduledLectures() {
+		return scheduledLectures;
+	}
+	
+	public int getCoursesWithRightNumberOfLectures() {
+		return coursesWithRightNumberOfLectures;
+	}
+	
+	public double getPercentageInfeasibleLectures() {
+		return percentageInfeasibleLectures;
+	}
+	
+	public double getPercentageScheduledLectures() {
+		return percentageScheduledLectures;
+	}
+	
+	public double getPercentageOverlaps() {
+		return percentageOverlaps;
+	}
+	
+	public double getPercentageCoursesWithRightNumberOfLectures() {
+		return percentageCoursesWithRightNumberOfLectures;
+	}
+	
+}
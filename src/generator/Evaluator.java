@@ -1,25 +1,133 @@
 package generator;
 
 import java.util.Arrays;
-import java.util.List;
-import java.util.Map; 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Evaluator of solutions given a problem.
+ * 
+ * An evaluator can be shared between threads: the buffers used while
+ * evaluating are kept per thread.
  */
 public class Evaluator {
-	private Problem problem;
+	/**
+	 * Ways to compute the lectures that the students can take. All of them give
+	 * exactly the same scores.
+	 */
+	public enum Mode {
+		/** for each group, look for one of its courses in the time slot */
+		SCAN,
+		/** AND of the group course mask with the time slot course mask */
+		BITSET,
+		/** as BITSET, with the Vector API if available at runtime (otherwise BITSET) */
+		VECTOR,
+		/** visit only the groups enrolled in the courses of the time slot */
+		INDEX
+	}
+	
+	private final CompiledProblem problem;
+	private final Mode mode;
+	
+	// null in SCAN and INDEX modes
+	private final CoverageKernel coverageKernel;
 	
 	// total number of desired lectures (i.e. sum of lectures for courses)
-	private int totalLectures;
+	private final int totalLectures;
 	
 	// total number of lectures enrolled by students (e.g. 3 students follow the same lectures => 3) 
-	private int totalEnrolledLectures;
+	private final int totalEnrolledLectures;
+	
+	// maximum number of solutions evaluated by one task of a batch
+	private static final int BATCH_THRESHOLD = 8;
+	
+	// pool used to evaluate batches
+	private volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+	
+	// buffers of each thread
+	private final ThreadLocal<Scratch> scratch;
+	
+	// cache of the scores, null if disabled
+	private volatile ScoreCache cache;
+	
+	/**
+	 * Buffers reused by the evaluations of one thread. The counters that take
+	 * them are package-private so that they can be measured in isolation.
+	 */
+	static class Scratch {
+		final boolean[] lectureInTimeslot;
+		final long[] timeslotMask;
+		final int[] scheduledLecturesPerCourse;
+		final int[] timeslot;
+		
+		// stamp of the time slot in which each group has been counted (INDEX mode)
+		final int[] groupStamp;
+		int stamp;
+		
+		// counters filled by countAll()
+		int takenLectures;
+		int infeasibleLectures;
+		int scheduledLectures;
+		
+		Scratch(CompiledProblem problem) {
+			lectureInTimeslot = new boolean[problem.getCourseCount()];
+			timeslotMask = new long[problem.getMaskWords()];
+			scheduledLecturesPerCourse = new int[problem.getCourseCount()];
+			timeslot = new int[problem.getClassroomCount()];
+			groupStamp = new int[problem.getGroupCount()];
+		}
+	}
+	
+	/**
+	 * Evaluates a range of a batch, splitting it if it is too large.
+	 */
+	private class BatchEvaluation extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Solution[] batch;
+		private final int[] scoresOut;
+		private final int from;
+		private final int to;
+		
+		BatchEvaluation(Solution[] batch, int[] scoresOut, int from, int to) {
+			this.batch = batch;
+			this.scoresOut = scoresOut;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= BATCH_THRESHOLD) {
+				Scratch s = scratch.get();
+				for (int i=from; i<to; i++)
+					scoresOut[i] = evaluateCached(batch[i], s);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new BatchEvaluation(batch, scoresOut, from, middle),
+						new BatchEvaluation(batch, scoresOut, middle, to));
+			}
+		}
+	}
 	
     public Evaluator(Problem problem) {
+    	this(problem.compile());
+    }
+    
+    public Evaluator(CompiledProblem problem) {
+    	this(problem, Mode.SCAN);
+    }
+    
+    public Evaluator(Problem problem, Mode mode) {
+    	this(problem.compile(), mode);
+    }
+    
+    public Evaluator(CompiledProblem problem, Mode mode) {
     	this.problem = problem;
+    	this.coverageKernel = createCoverageKernel(problem, mode);
+    	this.mode = coverageKernel instanceof BitsetCoverageKernel ? Mode.BITSET : mode;
     	this.totalLectures = countLectures();
     	this.totalEnrolledLectures = countEnrolledLectures();
+    	this.scratch = ThreadLocal.withInitial(() -> new Scratch(problem));
     }
     
     /**
@@ -29,20 +137,100 @@ public class Evaluator {
 	 * @return goodness of the solution
 	 */
     public int evaluate(Solution solution) {
+    	return evaluateCached(solution, scratch.get());
+    }
+
+    /**
+     * Calculates the sum of lectures that the students can take in one time
+     * slot, i.e. its contribution to the goodness. It allows to update the
+     * goodness of a solution when only some time slots change.
+     *
+     * @param timeslot courses scheduled in the time slot, 0 for no course
+     * @return sum of the sizes of the groups that can take a lecture
+     */
+    public int countTakenLectures(int[] timeslot) {
+    	return coveredGroupSizeWithIndex(timeslot, scratch.get());
+    }
+    
+    /**
+     * Calculates the goodness of a batch of solutions, splitting the batch
+     * across the threads of the pool (see {@link #setPool(ForkJoinPool)}).
+     * 
+     * @param batch solutions to evaluate
+     * @param scoresOut array where the goodness of batch[i] is stored at index i
+     */
+    public void evaluateAll(Solution[] batch, int[] scoresOut) {
+    	if (scoresOut.length < batch.length)
+    		throw new IllegalArgumentException("Output array shorter than the batch");
+    	
+    	pool.invoke(new BatchEvaluation(batch, scoresOut, 0, batch.length));
+    }
+    
+    /**
+     * Calculates the goodness of a solution together with all the other
+     * measures of performance, with one pass over the schedule.
+     * 
+     * @param solution solution to evaluate
+     * @return breakdown of the evaluation
+     */
+    public EvaluationReport evaluateDetailed(Solution solution) {
+    	Scratch s = scratch.get();
+    	int courseOk = 0;
+    	int courseCount = problem.getCourseCount();
+    	int[] desiredLecturesPerCourse = problem.getLecturesPerCourse();
+    	
+    	int score = evaluate(solution, s);
+    	int overlaps = totalEnrolledLectures - s.takenLectures;
+    	for (int c=0; c<courseCount; c++)
+    		if (s.scheduledLecturesPerCourse[c] == desiredLecturesPerCourse[c])
+    			courseOk++;
+    	
+    	return new EvaluationReport(score, s.takenLectures, overlaps, s.infeasibleLectures, s.scheduledLectures,
+    			courseOk,
+    			s.infeasibleLectures / (double) totalLectures * 100.0,
+    			(s.scheduledLectures - s.infeasibleLectures) / (double) totalLectures * 100.0,
+    			overlaps / (double) totalEnrolledLectures * 100.0,
+    			courseOk / (double) courseCount * 100.0);
+    }
+    
+    /**
+     * Calculates the goodness of a solution, looking it up in the cache first
+     * if the cache is enabled.
+     * 
+     * @param solution solution to evaluate
+     * @param s buffers of the calling thread
+     * @return goodness of the solution
+     */
+    private int evaluateCached(Solution solution, Scratch s) {
+    	ScoreCache c = cache;
+    	if (c == null)
+    		return evaluate(solution, s);
+    	
+    	long hash = solution.getZobristHash();
+    	int score = c.get(hash, Integer.MIN_VALUE);
+    	if (score == Integer.MIN_VALUE) {
+    		score = evaluate(solution, s);
+    		c.put(hash, score);
+    	}
+    	return score;
+    }
+    
+    private int evaluate(Solution solution, Scratch s) {
     	int total = 0;
     	int courseCount = problem.getCourseCount();
     	int[] desiredLecturesPerCourse = problem.getLecturesPerCourse();
-    	int[] scheduledLecturesPerCourse = countScheduledLecturesPerCourse(solution);
+    	
+    	countAll(solution, s);
 
     	// add number of taken lectures by each student
-        total += countTakenLectures(solution);
+        total += s.takenLectures;
         
         // penalty for infeasible lectures (i.e. more than one lectures of the same course in the same time slot)
-        total -= countInfeasibleLectures(solution);
+        total -= s.infeasibleLectures;
         
         // penalty if a course does not have the desired number of lectures
         for (int c=0; c<courseCount; c++)
-        	total -= Math.abs(desiredLecturesPerCourse[c] - scheduledLecturesPerCourse[c]);
+        	total -= Math.abs(desiredLecturesPerCourse[c] - s.scheduledLecturesPerCourse[c]);
         
         return total;
     }
@@ -55,7 +243,7 @@ public class Evaluator {
      * @return percentage of infeasible lectures
      */
     public double percentageInfeasibleLectures(Solution solution) {
-    	return countInfeasibleLectures(solution) / (double) totalLectures * 100.0;
+    	return countInfeasibleLectures(solution, scratch.get()) / (double) totalLectures * 100.0;
     }
     
     /**
@@ -66,9 +254,7 @@ public class Evaluator {
      * @return percentage of overlaps
      */
     public double percentageOverlaps(Solution solution) {
-    	if (countOverlaps(solution) / (double) totalEnrolledLectures * 100.0 < 0)
-    		System.err.println(countOverlaps(solution) + ", " + totalEnrolledLectures);
-    	return countOverlaps(solution) / (double) totalEnrolledLectures * 100.0;
+    	return countOverlaps(solution, scratch.get()) / (double) totalEnrolledLectures * 100.0;
     }
 
     /**
@@ -79,7 +265,7 @@ public class Evaluator {
      * @return percentage of correctly scheduled lectures
      */
 	public double percentageScheduledLectures(Solution solution) {
-		return (countScheduledLectures(solution) - countInfeasibleLectures(solution)) / (double) totalLectures * 100.0;
+		return (countScheduledLectures(solution) - countInfeasibleLectures(solution, scratch.get())) / (double) totalLectures * 100.0;
 	}
 	
 	/**
@@ -94,7 +280,7 @@ public class Evaluator {
 		int courseOk = 0;
 		int courseCount = problem.getCourseCount();
 		int[] desiredLecturesPerCourse = problem.getLecturesPerCourse();
-    	int[] scheduledLecturesPerCourse = countScheduledLecturesPerCourse(solution);
+    	int[] scheduledLecturesPerCourse = countScheduledLecturesPerCourse(solution, scratch.get());
     	
     	for (int c=0; c<courseCount; c++)
     		if (scheduledLecturesPerCourse[c] == desiredLecturesPerCourse[c])
@@ -107,10 +293,11 @@ public class Evaluator {
      * Calculates the sum of overlaps for the students.
      * 
      * @param solution solution
+     * @param s buffers of the calling thread
      * @return sum of overlaps for the students
      */
-	private int countOverlaps(Solution solution) {
-		return totalEnrolledLectures - countTakenLectures(solution);
+	int countOverlaps(Solution solution, Scratch s) {
+		return totalEnrolledLectures - countTakenLectures(solution, s);
 	}
 
     /**
@@ -119,7 +306,7 @@ public class Evaluator {
      * @return total number of lectures in the problem
      */
     private int countLectures() {
-        return Arrays.stream(problem.getLecturesPerCourse()).sum();
+        return problem.getTotalLectures();
     }
     
     /**
@@ -128,19 +315,7 @@ public class Evaluator {
      * @return sum of lectures that the students should be able to take
      */
     private int countEnrolledLectures() {
-    	int total = 0;
-        int[] lecturesPerCourse = problem.getLecturesPerCourse();
-        Map<List<Integer>, Integer> studentGroups = problem.getStudentGroups();
-        
-    	for (Map.Entry<List<Integer>, Integer> e : studentGroups.entrySet()) {
-        	List<Integer> studentGroupCourses = e.getKey();
-        	int studentGroupSize = e.getValue();
-        	
-            for (int course : studentGroupCourses)
-            	total += studentGroupSize * lecturesPerCourse[course-1];
-        }
-    	
-        return total;
+        return problem.getTotalEnrolledLectures();
     }
 
     /**
@@ -149,52 +324,252 @@ public class Evaluator {
      * @param solution solution
      * @return total number of lectures scheduled in the solution
      */
-    private int countScheduledLectures(Solution solution) {
-        return (int) Arrays.stream(solution.getSchedule())
-        		.flatMapToInt(a -> Arrays.stream(a))
-        		.filter(c -> c > 0)		// 0 means no course
-        		.count();
+    int countScheduledLectures(Solution solution) {
+        int total = 0;
+        for (int t=0; t<solution.getTimeslotCount(); t++)
+        	for (int cl=0; cl<solution.getClassroomCount(); cl++)
+        		if (solution.get(t, cl) > 0)	// 0 means no course
+        			total++;
+        return total;
     }
 
     /**
      * Calculates the sum of lectures that the students can take given the solution.
      * 
      * @param solution Solution
+     * @param s buffers of the calling thread
      * @return sum of lectures that each the students can take given the solution
      */
-    private int countTakenLectures(Solution solution) {
+    int countTakenLectures(Solution solution, Scratch s) {
+    	if (coverageKernel != null)
+    		return countTakenLecturesWithMasks(solution, s);
+    	if (mode == Mode.INDEX)
+    		return countTakenLecturesWithIndex(solution, s);
+    	
         int total = 0;
-        Map<List<Integer>, Integer> studentGroups = problem.getStudentGroups();
+        boolean[] lectureInTimeslot = s.lectureInTimeslot;
+        Arrays.fill(lectureInTimeslot, false);
         
-        for (int[] timeslot : solution.getSchedule()) {
-        	for (Map.Entry<List<Integer>, Integer> e : studentGroups.entrySet()) {
-            	List<Integer> studentGroupCourses = e.getKey();
-            	int studentGroupSize = e.getValue();
-                
-                for (int course : timeslot) {
-                	if (studentGroupCourses.contains(course)) {
-                		total += studentGroupSize;
-                		break;	// next group, this group cannot take other lectures
-                	}
-                }
-            }
+        int[] timeslot = s.timeslot;
+        for (int t=0; t<solution.getTimeslotCount(); t++) {
+        	solution.copyRow(t, timeslot);
+        	for (int course : timeslot)
+        		if (course > 0)
+        			lectureInTimeslot[course-1] = true;
+        	
+        	total += coveredGroupSize(lectureInTimeslot);
+        	
+        	for (int course : timeslot)
+        		if (course > 0)
+        			lectureInTimeslot[course-1] = false;
         }
 
 		return total;
     }
 	
+    /**
+     * Calculates the sum of the sizes of the groups that can take a lecture in a
+     * time slot, looking for one of their courses.
+     * 
+     * @param lectureInTimeslot true for the courses scheduled in the time slot
+     * @return sum of the sizes of the groups that can take a lecture
+     */
+    private int coveredGroupSize(boolean[] lectureInTimeslot) {
+    	int total = 0;
+    	int groupCount = problem.getGroupCount();
+    	
+    	for (int g=0; g<groupCount; g++) {
+    		for (int course : problem.getGroupCourses(g)) {
+    			if (lectureInTimeslot[course-1]) {
+    				total += problem.getGroupSize(g);
+    				break;	// next group, this group cannot take other lectures
+    			}
+    		}
+    	}
+    	
+    	return total;
+    }
+    
+    /**
+     * Calculates the sum of the sizes of the groups that can take a lecture in a
+     * time slot, visiting only the groups enrolled in the scheduled courses. A
+     * group is counted once thanks to the stamp, which changes at each time slot.
+     * 
+     * @param timeslot courses scheduled in the time slot
+     * @param s buffers of the calling thread
+     * @return sum of the sizes of the groups that can take a lecture
+     */
+    private int coveredGroupSizeWithIndex(int[] timeslot, Scratch s) {
+    	int total = 0;
+    	int[] groupStamp = s.groupStamp;
+    	
+    	// new stamp, resetting the array when the counter wraps around
+    	if (++s.stamp == Integer.MAX_VALUE) {
+    		Arrays.fill(groupStamp, 0);
+    		s.stamp = 1;
+    	}
+    	int stamp = s.stamp;
+    	
+    	for (int course : timeslot) {
+    		if (course > 0) {
+    			int[] groups = problem.getCourseGroups(course);
+    			int[] sizes = problem.getCourseGroupSizes(course);
+    			for (int i=0; i<groups.length; i++) {
+    				if (groupStamp[groups[i]] != stamp) {
+    					groupStamp[groups[i]] = stamp;
+    					total += sizes[i];
+    				}
+    			}
+    		}
+    	}
+    	
+    	return total;
+    }
+    
+    /**
+     * Calculates the sum of lectures that the students can take given the
+     * solution, with the course to groups index.
+     * 
+     * @param solution Solution
+     * @param s buffers of the calling thread
+     * @return sum of lectures that each the students can take given the solution
+     */
+    int countTakenLecturesWithIndex(Solution solution, Scratch s) {
+    	int total = 0;
+    	int[] timeslot = s.timeslot;
+    	
+    	for (int t=0; t<solution.getTimeslotCount(); t++) {
+    		solution.copyRow(t, timeslot);
+    		total += coveredGroupSizeWithIndex(timeslot, s);
+    	}
+    	
+    	return total;
+    }
+    
+    /**
+     * Calculates the sum of lectures that the students can take given the
+     * solution, building the course mask of each time slot.
+     * 
+     * @param solution Solution
+     * @param s buffers of the calling thread
+     * @return sum of lectures that each the students can take given the solution
+     */
+    int countTakenLecturesWithMasks(Solution solution, Scratch s) {
+    	int total = 0;
+    	long[] timeslotMask = s.timeslotMask;
+    	Arrays.fill(timeslotMask, 0);
+    	
+    	int[] timeslot = s.timeslot;
+    	for (int t=0; t<solution.getTimeslotCount(); t++) {
+    		solution.copyRow(t, timeslot);
+    		for (int course : timeslot)
+    			if (course > 0)
+    				timeslotMask[(course-1) >>> 6] |= 1L << (course-1);
+    		
+    		total += coverageKernel.coveredGroupSize(timeslotMask);
+    		
+    		for (int course : timeslot)
+    			if (course > 0)
+    				timeslotMask[(course-1) >>> 6] = 0;
+    	}
+    	
+    	return total;
+    }
+    
+    /**
+     * Calculates, with one pass over the schedule, the taken, infeasible and
+     * scheduled lectures, and the scheduled lectures per course. The results are
+     * stored in the buffers.
+     * 
+     * @param solution solution
+     * @param s buffers of the calling thread, where the results are stored
+     */
+    void countAll(Solution solution, Scratch s) {
+    	boolean[] lectureInTimeslot = s.lectureInTimeslot;
+    	long[] timeslotMask = s.timeslotMask;
+    	int[] scheduledLecturesPerCourse = s.scheduledLecturesPerCourse;
+    	Arrays.fill(lectureInTimeslot, false);
+    	Arrays.fill(timeslotMask, 0);
+    	Arrays.fill(scheduledLecturesPerCourse, 0);
+    	s.takenLectures = 0;
+    	s.infeasibleLectures = 0;
+    	s.scheduledLectures = 0;
+    	
+    	int[] timeslot = s.timeslot;
+    	for (int t=0; t<solution.getTimeslotCount(); t++) {
+    		solution.copyRow(t, timeslot);
+    		for (int course : timeslot) {
+    			if (course > 0) {		// 0 means no course
+    				s.scheduledLectures++;
+    				scheduledLecturesPerCourse[course-1]++;
+    				if (lectureInTimeslot[course-1]) {
+    					s.infeasibleLectures++;
+    				} else {
+    					lectureInTimeslot[course-1] = true;
+    					timeslotMask[(course-1) >>> 6] |= 1L << (course-1);
+    				}
+    			}
+    		}
+    		
+    		if (coverageKernel != null)
+    			s.takenLectures += coverageKernel.coveredGroupSize(timeslotMask);
+    		else if (mode == Mode.INDEX)
+    			s.takenLectures += coveredGroupSizeWithIndex(timeslot, s);
+    		else
+    			s.takenLectures += coveredGroupSize(lectureInTimeslot);
+    		
+    		for (int course : timeslot) {
+    			if (course > 0) {
+    				lectureInTimeslot[course-1] = false;
+    				timeslotMask[(course-1) >>> 6] = 0;
+    			}
+    		}
+    	}
+    }
+    
+	/**
+	 * Creates the kernel to compute the coverage of the time slots. The Vector
+	 * API kernel is compiled apart (source root vector) and loaded reflectively,
+	 * so that the incubator module is needed only when it is used.
+	 * 
+	 * @param problem problem
+	 * @param mode requested mode
+	 * @return kernel, null for SCAN and INDEX modes
+	 */
+	private static CoverageKernel createCoverageKernel(CompiledProblem problem, Mode mode) {
+		switch (mode) {
+		case SCAN:
+		case INDEX:
+			return null;
+		case VECTOR:
+			try {
+				return (CoverageKernel) Class.forName("generator.VectorCoverageKernel")
+						.getDeclaredMethod("create", CompiledProblem.class)
+						.invoke(null, problem);
+			} catch (ReflectiveOperationException | LinkageError e) {
+				// kernel not compiled or jdk.incubator.vector not available, fall back
+				return new BitsetCoverageKernel(problem);
+			}
+		default:
+			return new BitsetCoverageKernel(problem);
+		}
+	}
+	
 	/**
 	 * Calculates the sum of infeasible lectures. A lecture is infeasible if there
 	 * is already one lecture of the same course in the same time slot.
 	 * 
 	 * @param solution solution
+	 * @param s buffers of the calling thread
 	 * @return sum of infeasible lectures
 	 */
-	private int countInfeasibleLectures(Solution solution) {
+	int countInfeasibleLectures(Solution solution, Scratch s) {
 		int total = 0;
-		boolean[] lectureInTimeslot = new boolean[problem.getCourseCount()];
+		boolean[] lectureInTimeslot = s.lectureInTimeslot;
 		
-		for (int[] timeslot : solution.getSchedule()) {
+		int[] timeslot = s.timeslot;
+		for (int t=0; t<solution.getTimeslotCount(); t++) {
+			solution.copyRow(t, timeslot);
 			Arrays.fill(lectureInTimeslot, false);
 			for (int course : timeslot) {
 				if (course > 0) {
@@ -213,17 +588,75 @@ public class Evaluator {
 	 * Counts the number of scheduled lectures for each course.
 	 * 
 	 * @param solution solution
-	 * @return array of counts
+	 * @param s buffers of the calling thread
+	 * @return array of counts (buffer of the calling thread)
 	 */
-	private int[] countScheduledLecturesPerCourse(Solution solution) {
-    	int[] scheduledLecturesPerCourse = new int[problem.getCourseCount()];
+	int[] countScheduledLecturesPerCourse(Solution solution, Scratch s) {
+    	int[] scheduledLecturesPerCourse = s.scheduledLecturesPerCourse;
+    	Arrays.fill(scheduledLecturesPerCourse, 0);
     	
-    	Arrays.stream(solution.getSchedule())
-    		.flatMapToInt(t -> Arrays.stream(t))
-    		.filter(c -> c > 0)
-    		.forEach(c -> scheduledLecturesPerCourse[c-1]++);
+    	for (int t=0; t<solution.getTimeslotCount(); t++) {
+    		for (int cl=0; cl<solution.getClassroomCount(); cl++) {
+    			int course = solution.get(t, cl);
+    			if (course > 0)
+    				scheduledLecturesPerCourse[course-1]++;
+    		}
+    	}
     	
     	return scheduledLecturesPerCourse;
 	}
 	
+	/**
+	 * Gets the buffers of the calling thread, needed to call the counters
+	 * directly (e.g. from benchmarks).
+	 * 
+	 * @return buffers of the calling thread
+	 */
+	Scratch scratch() {
+		return scratch.get();
+	}
+	
+	public CompiledProblem getCompiledProblem() {
+		return problem;
+	}
+	
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+	
+	/**
+	 * Sets the pool used by {@link #evaluateAll(Solution[], int[])}. The default
+	 * is the common pool.
+	 * 
+	 * @param pool pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+	
+	public ScoreCache getCache() {
+		return cache;
+	}
+	
+	/**
+	 * Sets the cache used by {@link #evaluate(Solution)} and
+	 * {@link #evaluateAll(Solution[], int[])}, keyed by the Zobrist hash of the
+	 * solutions. The cache must be used only with solutions of this problem.
+	 * 
+	 * @param cache cache, null to disable it (default)
+	 */
+	public void setCache(ScoreCache cache) {
+		this.cache = cache;
+	}
+	
+	/**
+	 * Gets the mode actually used, which is BITSET when VECTOR was requested but
+	 * the Vector API is not available.
+	 * 
+	 * @return mode
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+	
 }
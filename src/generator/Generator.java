@@ -19,11 +19,27 @@ public class Generator {
     private final int[] rangeClassrooms;
     private final int[] rangeStudentsCourseCount;
     private final int[] rangeCoursesLecturesCount;
-    private static final Random random = new Random();
+    private final Random random;
     
     public Generator(final int[] rangeStudents, final int[] rangeNumCourses, final int[] rangeDays,
             final int[] rangeHoursPerDay, final int[] rangeClassrooms, final int[] rangeStudentsCourseCount,
             final int[] rangeCoursesLecturesCount) {
+        this(rangeStudents, rangeNumCourses, rangeDays, rangeHoursPerDay, rangeClassrooms, rangeStudentsCourseCount,
+                rangeCoursesLecturesCount, new Random());
+    }
+    
+    // same as above, but the sequence of generated problems is determined by the seed
+    public Generator(final int[] rangeStudents, final int[] rangeNumCourses, final int[] rangeDays,
+            final int[] rangeHoursPerDay, final int[] rangeClassrooms, final int[] rangeStudentsCourseCount,
+            final int[] rangeCoursesLecturesCount, final long seed) {
+        this(rangeStudents, rangeNumCourses, rangeDays, rangeHoursPerDay, rangeClassrooms, rangeStudentsCourseCount,
+                rangeCoursesLecturesCount, new Random(seed));
+    }
+    
+    private Generator(final int[] rangeStudents, final int[] rangeNumCourses, final int[] rangeDays,
+            final int[] rangeHoursPerDay, final int[] rangeClassrooms, final int[] rangeStudentsCourseCount,
+            final int[] rangeCoursesLecturesCount, final Random random) {
+        this.random = random;
         this.rangeStudents = rangeStudents;
         this.rangeCourses = rangeNumCourses;
         this.rangeDays = rangeDays;
@@ -65,7 +81,7 @@ public class Generator {
         for (int i = 0; i < studentCount; i++) {
             final int registeredCoursesCount = getRandomInRange(rangeStudentsCourseCount);
             s[i] = new int[registeredCoursesCount];
-            Collections.shuffle(courseList);
+            Collections.shuffle(courseList, random);
             for (int j = 0; j < registeredCoursesCount; j++) {
                 s[i][j] = courseList.get(j);
             }
@@ -0,0 +1,249 @@
+package generator;
+
+import java.util.Arrays;
+
+/**
+ * Stateful evaluator bound to one schedule. It gives the same score as
+ * {@link Evaluator#evaluate(Solution)}, but it keeps the counters the score is
+ * made of, so that a change of a few cells costs only the student groups
+ * enrolled in the affected courses instead of a full scan.
+ *
+ * The bound schedule is modified in place by {@link #applySwap(int, int, int, int)}
+ * and {@link #applySet(int, int, int)}.
+ * An instance is not thread-safe.
+ */
+public class IncrementalEvaluator {
+	private final int timeslotCount;
+	private final int classroomCount;
+	private final int courseCount;
+	private final int[] desiredLecturesPerCourse;
+
+	// size of each student group
+	private final int[] groupSizes;
+
+	// groups enrolled in each course (index course-1)
+	private final int[][] courseGroups;
+
+	private Solution schedule;
+
+	// number of lectures of each course in each time slot ([t][course-1])
+	private final int[][] lecturesInTimeslot;
+
+	// number of scheduled lectures of each course (index course-1)
+	private final int[] scheduledLecturesPerCourse;
+
+	// number of distinct courses of each group in each time slot ([t][group])
+	private final int[][] groupCoverage;
+
+	// components of the score
+	private int takenLectures;
+	private int infeasibleLectures;
+	private int courseLecturesPenalty;
+
+	public IncrementalEvaluator(Problem problem) {
+		this(problem.compile());
+	}
+
+	public IncrementalEvaluator(CompiledProblem problem) {
+		int groupCount = problem.getGroupCount();
+
+		this.timeslotCount = problem.getTimeslotsCount();
+		this.classroomCount = problem.getClassroomCount();
+		this.courseCount = problem.getCourseCount();
+		this.desiredLecturesPerCourse = problem.getLecturesPerCourse();
+		this.groupSizes = problem.getGroupSizes();
+		this.courseGroups = new int[courseCount][];
+		for (int c=0; c<courseCount; c++)
+			courseGroups[c] = problem.getCourseGroups(c+1);
+		this.lecturesInTimeslot = new int[timeslotCount][courseCount];
+		this.scheduledLecturesPerCourse = new int[courseCount];
+		this.groupCoverage = new int[timeslotCount][groupCount];
+	}
+
+	/**
+	 * Binds the evaluator to a schedule and computes all the counters from
+	 * scratch. The schedule is not copied.
+	 *
+	 * @param schedule schedule to bind
+	 */
+	public void bind(Solution schedule) {
+		this.schedule = schedule;
+		this.takenLectures = 0;
+		this.infeasibleLectures = 0;
+		for (int t=0; t<timeslotCount; t++) {
+			Arrays.fill(lecturesInTimeslot[t], 0);
+			Arrays.fill(groupCoverage[t], 0);
+		}
+		Arrays.fill(scheduledLecturesPerCourse, 0);
+
+		// start from an empty schedule: every course misses all its lectures
+		courseLecturesPenalty = 0;
+		for (int c=0; c<courseCount; c++)
+			courseLecturesPenalty += desiredLecturesPerCourse[c];
+
+		for (int t=0; t<timeslotCount; t++)
+			for (int cl=0; cl<classroomCount; cl++)
+				addLecture(t, schedule.get(t, cl));
+	}
+
+	/**
+	 * Calculates how the score would change swapping two cells of the bound
+	 * schedule. The schedule is left unchanged.
+	 *
+	 * @param t1 time slot of the first cell
+	 * @param cl1 classroom of the first cell
+	 * @param t2 time slot of the second cell
+	 * @param cl2 classroom of the second cell
+	 * @return new score - current score
+	 */
+	public int deltaSwap(int t1, int cl1, int t2, int cl2) {
+		int before = getScore();
+		applySwap(t1, cl1, t2, cl2);
+		int after = getScore();
+		applySwap(t1, cl1, t2, cl2);	// a swap is its own inverse
+		return after - before;
+	}
+
+	/**
+	 * Swaps two cells of the bound schedule and updates the counters.
+	 *
+	 * @param t1 time slot of the first cell
+	 * @param cl1 classroom of the first cell
+	 * @param t2 time slot of the second cell
+	 * @param cl2 classroom of the second cell
+	 */
+	public void applySwap(int t1, int cl1, int t2, int cl2) {
+		int course1 = schedule.get(t1, cl1);
+		int course2 = schedule.get(t2, cl2);
+
+		// nothing changes if the lectures are of the same course in the same time slot
+		if (course1 == course2 || (t1 == t2 && cl1 == cl2))
+			return;
+
+		removeLecture(t1, course1);
+		removeLecture(t2, course2);
+		schedule.set(t1, cl1, course2);
+		schedule.set(t2, cl2, course1);
+		addLecture(t1, course2);
+		addLecture(t2, course1);
+	}
+
+	/**
+	 * Calculates how the score would change setting a cell of the bound
+	 * schedule. The schedule is left unchanged.
+	 *
+	 * @param t time slot
+	 * @param cl classroom
+	 * @param course course ID, 0 for no course
+	 * @return new score - current score
+	 */
+	public int deltaSet(int t, int cl, int course) {
+		int before = getScore();
+		int old = schedule.get(t, cl);
+		applySet(t, cl, course);
+		int after = getScore();
+		applySet(t, cl, old);
+		return after - before;
+	}
+
+	/**
+	 * Sets a cell of the bound schedule and updates the counters. It allows to
+	 * add and remove lectures, not just to move them.
+	 *
+	 * @param t time slot
+	 * @param cl classroom
+	 * @param course course ID, 0 for no course
+	 */
+	public void applySet(int t, int cl, int course) {
+		int old = schedule.get(t, cl);
+		if (old == course)
+			return;
+
+		removeLecture(t, old);
+		schedule.set(t, cl, course);
+		addLecture(t, course);
+	}
+
+	/**
+	 * Gets the score of the bound schedule, equal to the one computed by
+	 * {@link Evaluator#evaluate(Solution)}.
+	 *
+	 * @return goodness of the bound schedule
+	 */
+	public int getScore() {
+		return takenLectures - infeasibleLectures - courseLecturesPenalty;
+	}
+
+	public Solution getSchedule() {
+		return schedule;
+	}
+
+	/**
+	 * @param t time slot
+	 * @param course course ID (from 1)
+	 * @return number of lectures of the course in the time slot, more than 1 if
+	 *         some are infeasible
+	 */
+	public int getLecturesInTimeslot(int t, int course) {
+		return lecturesInTimeslot[t][course-1];
+	}
+
+	/**
+	 * @param course course ID (from 1)
+	 * @return number of scheduled lectures of the course
+	 */
+	public int getScheduledLectures(int course) {
+		return scheduledLecturesPerCourse[course-1];
+	}
+
+	/**
+	 * @param t time slot
+	 * @param group student group
+	 * @return number of distinct courses of the group in the time slot, more
+	 *         than 1 if its lectures overlap
+	 */
+	public int getGroupCoverage(int t, int group) {
+		return groupCoverage[t][group];
+	}
+
+	private void addLecture(int t, int course) {
+		if (course == 0)
+			return;		// 0 means no course
+
+		int c = course - 1;
+		if (lecturesInTimeslot[t][c]++ > 0) {
+			// there was already a lecture of this course in this time slot
+			infeasibleLectures++;
+		} else {
+			// the groups enrolled in the course can now take a lecture in this time slot
+			for (int g : courseGroups[c])
+				if (groupCoverage[t][g]++ == 0)
+					takenLectures += groupSizes[g];
+		}
+
+		courseLecturesPenalty -= Math.abs(desiredLecturesPerCourse[c] - scheduledLecturesPerCourse[c]);
+		scheduledLecturesPerCourse[c]++;
+		courseLecturesPenalty += Math.abs(desiredLecturesPerCourse[c] - scheduledLecturesPerCourse[c]);
+	}
+
+	private void removeLecture(int t, int course) {
+		if (course == 0)
+			return;		// 0 means no course
+
+		int c = course - 1;
+		if (--lecturesInTimeslot[t][c] > 0) {
+			// one of the duplicates has been removed
+			infeasibleLectures--;
+		} else {
+			// the groups enrolled in the course lose the lecture in this time slot
+			for (int g : courseGroups[c])
+				if (--groupCoverage[t][g] == 0)
+					takenLectures -= groupSizes[g];
+		}
+
+		courseLecturesPenalty -= Math.abs(desiredLecturesPerCourse[c] - scheduledLecturesPerCourse[c]);
+		scheduledLecturesPerCourse[c]--;
+		courseLecturesPenalty += Math.abs(desiredLecturesPerCourse[c] - scheduledLecturesPerCourse[c]);
+	}
+
+}
@@ -81,6 +81,16 @@ public class Problem {
         return capacity >= sum;
     }
     
+	/**
+	 * Builds the primitive-only view of the problem used by the evaluator and the
+	 * solvers. It must be called after the problem has been completely filled.
+	 * 
+	 * @return compiled problem
+	 */
+    public CompiledProblem compile() {
+    	return new CompiledProblem(this);
+    }
+    
     @Override
     public String toString() {
         String s = "#Courses: " + courseCount + "\t#TimeSlots: " + timeslotsCount + "\t#Classrooms: " + classroomCount
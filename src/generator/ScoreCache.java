@@ -0,0 +1,113 @@
+package generator;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of scores keyed by the Zobrist hash of the schedules (see
+ * {@link Solution#getZobristHash()}). It is direct-mapped: each hash has one
+ * slot and a new entry evicts the old one.
+ * 
+ * The cache can be shared between threads without locks. Each slot stores the
+ * hash XOR the value together with the value, so that an entry torn by two
+ * concurrent writes does not match any hash and is just a miss.
+ */
+public class ScoreCache {
+	// pairs (hash ^ value, value), value = score << 1 | 1 (0 for an empty slot)
+	private final long[] table;
+	private final int mask;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	
+	/**
+	 * @param capacity maximum number of entries, rounded up to a power of 2
+	 */
+	public ScoreCache(int capacity) {
+		if (capacity <= 0 || capacity > 1 << 29)
+			throw new IllegalArgumentException("Capacity must be in (0, 2^29]");
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		this.table = new long[2 * size];
+		this.mask = size - 1;
+	}
+	
+	/**
+	 * Gets a score and updates the counters.
+	 * 
+	 * @param hash Zobrist hash of the schedule
+	 * @param missing value returned in case of miss
+	 * @return score, missing if not in the cache
+	 */
+	public int get(long hash, int missing) {
+		int i = index(hash);
+		long value = table[i + 1];
+		long key = table[i];
+		if (value != 0 && (key ^ value) == hash) {
+			hits.increment();
+			return (int) (value >> 1);
+		}
+		misses.increment();
+		return missing;
+	}
+	
+	/**
+	 * Checks whether a score is in the cache, without updating the counters.
+	 * 
+	 * @param hash Zobrist hash of the schedule
+	 * @return true if the score is in the cache
+	 */
+	public boolean contains(long hash) {
+		int i = index(hash);
+		long value = table[i + 1];
+		return value != 0 && (table[i] ^ value) == hash;
+	}
+	
+	/**
+	 * Stores a score, evicting the entry in the same slot.
+	 * 
+	 * @param hash Zobrist hash of the schedule
+	 * @param score score
+	 */
+	public void put(long hash, int score) {
+		int i = index(hash);
+		long value = (long) score << 1 | 1;
+		table[i] = hash ^ value;
+		table[i + 1] = value;
+	}
+	
+	/**
+	 * Removes all the entries and resets the counters.
+	 */
+	public void clear() {
+		Arrays.fill(table, 0);
+		hits.reset();
+		misses.reset();
+	}
+	
+	public int getCapacity() {
+		return mask + 1;
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return hits / (hits + misses), 0 if the cache has not been used
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : h / (double) total;
+	}
+	
+	private int index(long hash) {
+		return ((int) (hash ^ (hash >>> 32)) & mask) << 1;
+	}
+	
+}
@@ -8,29 +8,215 @@ public class Solution {
 	 * We represent the schedule as a TxCL matrix, where each cell represents a
 	 * lecture of a course. This way, there cannot be 2 lectures in the same
 	 * classroom at the same time, so we satisfy one of the constraints implicitly.
+	 *
+	 * The matrix is stored row by row in one contiguous array, the cell (t,cl)
+	 * being at index t*CL+cl. Course IDs are stored as short when they fit (i.e.
+	 * fewer than 32k courses), otherwise as int. Exactly one of the two arrays is
+	 * not null.
 	 */
-    private int[][] schedule;
+	private short[] shortCells;
+	private int[] intCells;
+	private int timeslotCount;
+	private int classroomCount;
 
-    public Solution(int[][] solution){
-        setSchedule(solution);
-    }
+	/*
+	 * Zobrist hash of the schedule: XOR of the keys of the (cell, course) pairs,
+	 * updated at each change of a cell. The key of a pair is a pseudo-random
+	 * 64-bit value computed from the pair itself, so that no table is needed.
+	 * Empty cells have key 0.
+	 */
+	private long hash;
+	private static final long ZOBRIST_SEED = 0x2545F4914F6CDD1DL;
 
-    public void setSchedule(int[][] solution) {
-        this.schedule = solution;
-    }
+	/**
+	 * Constructs an empty schedule (no course in any cell).
+	 *
+	 * @param timeslotCount number of time slots
+	 * @param classroomCount number of classrooms
+	 * @param courseCount number of courses, used to choose the storage
+	 */
+	public Solution(int timeslotCount, int classroomCount, int courseCount) {
+		this.timeslotCount = timeslotCount;
+		this.classroomCount = classroomCount;
+		if (courseCount <= Short.MAX_VALUE)
+			this.shortCells = new short[timeslotCount * classroomCount];
+		else
+			this.intCells = new int[timeslotCount * classroomCount];
+	}
 
-    public int[][] getSchedule() {
-        return schedule;
-    }
+	/**
+	 * Constructs a copy of a schedule.
+	 *
+	 * @param solution schedule to copy
+	 */
+	public Solution(Solution solution) {
+		this.timeslotCount = solution.timeslotCount;
+		this.classroomCount = solution.classroomCount;
+		this.shortCells = solution.shortCells == null ? null : solution.shortCells.clone();
+		this.intCells = solution.intCells == null ? null : solution.intCells.clone();
+		this.hash = solution.hash;
+	}
+
+	public Solution(int[][] solution) {
+		setSchedule(solution);
+	}
+
+	/**
+	 * Copies a TxCL matrix into the schedule.
+	 *
+	 * @param solution TxCL matrix
+	 */
+	public void setSchedule(int[][] solution) {
+		int max = 0;
+		for (int[] timeslot : solution)
+			for (int course : timeslot)
+				max = Math.max(max, course);
+
+		this.timeslotCount = solution.length;
+		this.classroomCount = timeslotCount > 0 ? solution[0].length : 0;
+		this.shortCells = null;
+		this.intCells = null;
+		this.hash = 0;
+		if (max <= Short.MAX_VALUE)
+			this.shortCells = new short[timeslotCount * classroomCount];
+		else
+			this.intCells = new int[timeslotCount * classroomCount];
+		for (int t=0; t<timeslotCount; t++)
+			setRow(t, solution[t]);
+	}
+
+	/**
+	 * Gets the schedule as a TxCL matrix. This is a compatibility view: the
+	 * matrix is a copy, so changing it does not change the schedule.
+	 *
+	 * @return TxCL matrix
+	 */
+	public int[][] getSchedule() {
+		int[][] schedule = new int[timeslotCount][classroomCount];
+		for (int t=0; t<timeslotCount; t++)
+			copyRow(t, schedule[t]);
+		return schedule;
+	}
+
+	public int get(int t, int cl) {
+		int i = t * classroomCount + cl;
+		return shortCells != null ? shortCells[i] : intCells[i];
+	}
+
+	public void set(int t, int cl, int course) {
+		int i = t * classroomCount + cl;
+		hash ^= zobristKey(i, shortCells != null ? shortCells[i] : intCells[i]) ^ zobristKey(i, course);
+		if (shortCells != null) {
+			if (course > Short.MAX_VALUE)
+				widen();
+			else {
+				shortCells[i] = (short) course;
+				return;
+			}
+		}
+		intCells[i] = course;
+	}
+
+	/**
+	 * Copies a time slot of the schedule into an array.
+	 *
+	 * @param t time slot
+	 * @param dst array of at least CL elements
+	 */
+	public void copyRow(int t, int[] dst) {
+		int base = t * classroomCount;
+		if (shortCells != null) {
+			for (int cl=0; cl<classroomCount; cl++)
+				dst[cl] = shortCells[base + cl];
+		} else {
+			System.arraycopy(intCells, base, dst, 0, classroomCount);
+		}
+	}
+
+	/**
+	 * Copies an array into a time slot of the schedule.
+	 *
+	 * @param t time slot
+	 * @param src array of at least CL elements
+	 */
+	public void setRow(int t, int[] src) {
+		for (int cl=0; cl<classroomCount; cl++)
+			set(t, cl, src[cl]);
+	}
+
+	/**
+	 * Overwrites this schedule with another one of the same size.
+	 *
+	 * @param solution schedule to copy
+	 */
+	public void copyFrom(Solution solution) {
+		if (solution.timeslotCount != timeslotCount || solution.classroomCount != classroomCount)
+			throw new IllegalArgumentException("Schedules of different size");
+
+		if (shortCells != null && solution.shortCells != null) {
+			System.arraycopy(solution.shortCells, 0, shortCells, 0, shortCells.length);
+		} else if (intCells != null && solution.intCells != null) {
+			System.arraycopy(solution.intCells, 0, intCells, 0, intCells.length);
+		} else {
+			this.shortCells = solution.shortCells == null ? null : solution.shortCells.clone();
+			this.intCells = solution.intCells == null ? null : solution.intCells.clone();
+		}
+		this.hash = solution.hash;
+	}
+
+	public int getTimeslotCount() {
+		return timeslotCount;
+	}
+
+	public int getClassroomCount() {
+		return classroomCount;
+	}
+
+	/**
+	 * Gets the Zobrist hash of the schedule. Equal schedules have equal hashes,
+	 * while different schedules have different hashes with high probability.
+	 *
+	 * @return 64-bit hash
+	 */
+	public long getZobristHash() {
+		return hash;
+	}
 
     @Override
     public String toString() {
     	StringBuffer sb = new StringBuffer();
-    	for (int t=0; t<schedule.length; t++) {
-    		for (int cl=0; cl<schedule[t].length; cl++)
-    			sb.append(schedule[t][cl]).append("\t");
+    	for (int t=0; t<timeslotCount; t++) {
+    		for (int cl=0; cl<classroomCount; cl++)
+    			sb.append(get(t, cl)).append("\t");
     		sb.append("\n");
     	}
     	return sb.toString();
     }
-}
\ No newline at end of file
+
+	/**
+	 * Computes the Zobrist key of a course in a cell (SplitMix64 finalizer).
+	 *
+	 * @param cell index of the cell, t*CL+cl
+	 * @param course course ID, 0 for no course
+	 * @return 64-bit key, 0 for no course
+	 */
+	private static long zobristKey(int cell, int course) {
+		if (course == 0)
+			return 0;
+		long z = ZOBRIST_SEED + ((long) cell << 32 | (course & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Switches from short to int storage, needed when a course ID does not fit in
+	 * a short.
+	 */
+	private void widen() {
+		intCells = new int[shortCells.length];
+		for (int i=0; i<shortCells.length; i++)
+			intCells[i] = shortCells[i];
+		shortCells = null;
+	}
+}
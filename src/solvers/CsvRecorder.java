@@ -0,0 +1,65 @@
+package solvers;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Listener writing the progress of solvers as CSV, one row at most every
+ * given interval plus the final state. It can be shared by several solvers
+ * (the rows contain the solver name), also running in parallel: the interval
+ * applies to each solver name separately.
+ */
+public class CsvRecorder implements SolverListener {
+	private static final String HEADER = "solver,elapsed_ms,iterations,iterations_per_s,current_score,best_score,"
+			+ "acceptance_rate,population_mean,diversity";
+	
+	private final PrintWriter writer;
+	private final long intervalNanos;
+	// time of the last row of each solver
+	private final Map<String, Long> lastRows = new HashMap<>();
+	
+	/**
+	 * @param writer destination, the header is written immediately
+	 * @param interval minimum time between two rows in ms, 0 to write all the
+	 *                 reports
+	 */
+	public CsvRecorder(Writer writer, long interval) {
+		this.writer = writer instanceof PrintWriter ? (PrintWriter) writer : new PrintWriter(writer);
+		this.intervalNanos = interval * 1_000_000;
+		this.writer.println(HEADER);
+	}
+	
+	@Override
+	public synchronized void onProgress(SolverProgress progress) {
+		long now = System.nanoTime();
+		Long lastRow = lastRows.get(progress.getSolver());
+		if (lastRow != null && now - lastRow < intervalNanos)
+			return;
+		lastRows.put(progress.getSolver(), now);
+		write(progress);
+	}
+	
+	@Override
+	public synchronized void onFinish(SolverProgress progress) {
+		write(progress);
+		writer.flush();
+	}
+	
+	private void write(SolverProgress p) {
+		writer.println(String.format(Locale.ROOT, "%s,%.3f,%d,%.1f,%s,%s,%s,%s,%s", p.getSolver(), p.getElapsedTime(),
+				p.getIterations(), p.getIterationsPerSecond(), format(p.getCurrentScore()),
+				format(p.getBestScore()), format(p.getAcceptanceRate()), format(p.getPopulationMean()),
+				format(p.getDiversity())));
+	}
+	
+	// empty field for NaN
+	private static String format(double value) {
+		if (Double.isNaN(value))
+			return "";
+		return value == Math.rint(value) ? Long.toString((long) value) : String.format(Locale.ROOT, "%.4f", value);
+	}
+	
+}
@@ -6,4 +6,13 @@ public interface Solver {
 	
 	Solution solve();
 	
+	/**
+	 * Sets the listener notified of the progress of solve(), null for none.
+	 * Solvers that do not report their progress ignore it.
+	 * 
+	 * @param listener listener
+	 */
+	default void setListener(SolverListener listener) {
+	}
+	
 }
@@ -0,0 +1,26 @@
+package solvers;
+
+/**
+ * Receives the progress of a running solver. Solvers call the listener
+ * periodically from the thread running solve(), and only if a listener has
+ * been set, so that a run without listener does not pay for it.
+ */
+public interface SolverListener {
+	
+	/**
+	 * Called periodically while the solver is running.
+	 * 
+	 * @param progress state of the solver
+	 */
+	void onProgress(SolverProgress progress);
+	
+	/**
+	 * Called once when the solver is done, with the final state.
+	 * 
+	 * @param progress state of the solver
+	 */
+	default void onFinish(SolverProgress progress) {
+		onProgress(progress);
+	}
+	
+}
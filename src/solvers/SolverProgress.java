@@ -0,0 +1,101 @@
+package solvers;
+
+/**
+ * Snapshot of the state of a running solver. The values that do not apply to
+ * a solver (e.g. the population of GA for annealing) are NaN.
+ */
+public final class SolverProgress {
+	private final String solver;
+	private final long iterations;
+	private final long elapsedNanos;
+	private final double currentScore;
+	private final double bestScore;
+	private final double acceptanceRate;
+	private final double populationMean;
+	private final double diversity;
+	
+	/**
+	 * @param solver name of the solver
+	 * @param iterations iterations done so far (moves for annealing and tabu
+	 *                   search, generations for GA)
+	 * @param elapsedNanos time since the start of solve() in ns
+	 * @param currentScore score of the current schedule (best of the current
+	 *                     population for GA)
+	 * @param bestScore best score so far
+	 * @param acceptanceRate fraction of worsening moves accepted since the
+	 *                       previous report (annealing), or of the proposed
+	 *                       exchanges (parallel tempering)
+	 * @param populationMean mean fitness of the population (GA)
+	 * @param diversity mean fraction of genes differing from the best
+	 *                  chromosome (GA)
+	 */
+	public SolverProgress(String solver, long iterations, long elapsedNanos, double currentScore, double bestScore,
+			double acceptanceRate, double populationMean, double diversity) {
+		this.solver = solver;
+		this.iterations = iterations;
+		this.elapsedNanos = elapsedNanos;
+		this.currentScore = currentScore;
+		this.bestScore = bestScore;
+		this.acceptanceRate = acceptanceRate;
+		this.populationMean = populationMean;
+		this.diversity = diversity;
+	}
+	
+	
+	/*
+	 * Getters
+	 */
+	
+	public String getSolver() {
+		return solver;
+	}
+	
+	public long getIterations() {
+		return iterations;
+	}
+	
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	/**
+	 * @return time since the start of solve() in ms
+	 */
+	public double getElapsedTime() {
+		return elapsedNanos / 1e6;
+	}
+	
+	/**
+	 * @return average iterations per second since the start of solve()
+	 */
+	public double getIterationsPerSecond() {
+		return elapsedNanos > 0 ? iterations * 1e9 / elapsedNanos : 0;
+	}
+	
+	public double getCurrentScore() {
+		return currentScore;
+	}
+	
+	public double getBestScore() {
+		return bestScore;
+	}
+	
+	public double getAcceptanceRate() {
+		return acceptanceRate;
+	}
+	
+	public double getPopulationMean() {
+		return populationMean;
+	}
+	
+	public double getDiversity() {
+		return diversity;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%s: %d iterations in %.1f ms (%.0f/s), current %.0f, best %.0f", solver, iterations,
+				getElapsedTime(), getIterationsPerSecond(), currentScore, bestScore);
+	}
+	
+}
@@ -1,15 +1,19 @@
 
 package solvers.annealing;
 
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
+import generator.CompiledProblem;
 import generator.Evaluator;
+import generator.IncrementalEvaluator;
 import generator.Problem;
 import generator.Solution;
 import solvers.Solver;
+import solvers.SolverListener;
+import solvers.SolverProgress;
 
 /**
  * Simulated Annealing
@@ -21,79 +25,141 @@ import solvers.Solver;
  */
 public class Annealing implements Solver {
 	
-    private int temperature;
-    private double coolingRate;
-    private final int courses;
-    private final int[] coursesCount;
-    private final int timeslots;
-    private final int classrooms;
+    private final int temperature;
+    private final double coolingRate;
     private final Evaluator e;
+    private final double[] operatorProbabilities;
+    private final long seed;
+    private SolverListener listener;
+
+    // moves between two progress reports
+    static final int PROGRESS_INTERVAL = 1024;
+
+    // by default, only swaps of two random lectures
+    private static final double[] SWAP_ONLY = { 1, 0, 0, 0 };
 
     public Annealing(int temperature, double coolingRate, Problem p, Evaluator e) {
+        this(temperature, coolingRate, p, e, SWAP_ONLY);
+    }
+
+    // same as above, but the run is determined by the seed
+    public Annealing(int temperature, double coolingRate, Problem p, Evaluator e, long seed) {
+        this(temperature, coolingRate, e, SWAP_ONLY, seed);
+    }
+
+    /**
+     * @param operatorProbabilities selection probability of each neighbourhood
+     *                              operator, indexed by {@link MoveEngine.Operator} ordinal
+     */
+    public Annealing(int temperature, double coolingRate, Problem p, Evaluator e, double[] operatorProbabilities) {
+        this(temperature, coolingRate, e, operatorProbabilities, new SplittableRandom().nextLong());
+    }
+
+    // same as above, but the run is determined by the seed
+    public Annealing(int temperature, double coolingRate, Problem p, Evaluator e, double[] operatorProbabilities,
+            long seed) {
+        this(temperature, coolingRate, e, operatorProbabilities, seed);
+    }
+
+    /**
+     * @param seed seed, every call of solve() gives the same run
+     */
+    Annealing(int temperature, double coolingRate, Evaluator e, double[] operatorProbabilities, long seed) {
         this.temperature = temperature;
         this.coolingRate = coolingRate;
         this.e = e;
-        this.courses = p.getCourseCount();
-        this.coursesCount = p.getLecturesPerCourse();
-        this.timeslots = p.getTimeslotsCount();
-        this.classrooms = p.getClassroomCount();
+        this.operatorProbabilities = operatorProbabilities.clone();
+        this.seed = seed;
     }
 
     public Solution solve() {
-        int[][] schedule;
-        int[][] newSchedule = new int[timeslots][classrooms];
-        int[][] bestSchedule = new int[timeslots][classrooms];
+        Solution schedule;
+        Solution bestSchedule;
         int cost = 0;
         int newCost = 0;
         int bestCost = 0;
         double keep = 0;
         double r = 0;
+        long iterations = 0;
+        int worse = 0;
+        int kept = 0;
+        long startTime = System.nanoTime();
+        int temperature = this.temperature;	// local, so that solve() can be called again
+        SplittableRandom random = new SplittableRandom(seed);	// same
         // generate random schedule to start with
-        schedule = init();
-        cost = e.evaluate(new Solution(schedule));
+        schedule = init(e.getCompiledProblem(), random);
+        // the schedule is changed in place, rejected moves are undone
+        IncrementalEvaluator ie = new IncrementalEvaluator(e.getCompiledProblem());
+        ie.bind(schedule);
+        MoveEngine moves = new MoveEngine(ie, e.getCompiledProblem(), operatorProbabilities, random);
+        cost = ie.getScore();
+        bestSchedule = new Solution(schedule);
         bestCost = cost;
         // while we are not frozen
         while (temperature > 1) {
-            // generate a neighbor solution by swaping two random lectures
-            newSchedule = swap(schedule);
-            newCost = e.evaluate(new Solution(newSchedule));
+            // generate a neighbor solution
+            moves.apply();
+            newCost = ie.getScore();
             // if the new cost is better
             if (newCost > cost) {
-                // we make the new schedule the schedule
-                for (int i = 0; i < timeslots; i++) {
-                    schedule[i] = Arrays.copyOf(newSchedule[i], newSchedule[i].length);
-                }
                 // if necessary we update the best schedule
                 if (newCost > bestCost) {
-                    for (int i = 0; i < timeslots; i++) {
-                        bestSchedule[i] = Arrays.copyOf(newSchedule[i], newSchedule[i].length);
-                    }
+                    bestSchedule.copyFrom(schedule);
                     bestCost = newCost;
                 }
                 cost = newCost;
             } else { // if not we use the temperature and randomness
                 keep = Math.exp((cost - newCost) / temperature);
-                r = ThreadLocalRandom.current().nextDouble();
+                r = random.nextDouble();
+                worse++;
                 if (keep > r) {
-                    for (int i = 0; i < timeslots; i++) {
-                        schedule[i] = Arrays.copyOf(newSchedule[i], newSchedule[i].length);
-                    }
                     cost = newCost;
+                    kept++;
+                } else {
+                    moves.undo();
                 }
             }
             // we decrease the temperature
             temperature *= 1 - coolingRate;
+            iterations++;
+            if (listener != null && iterations % PROGRESS_INTERVAL == 0) {
+                listener.onProgress(new SolverProgress("Annealing", iterations, System.nanoTime() - startTime, cost,
+                        bestCost, worse > 0 ? kept / (double) worse : Double.NaN, Double.NaN, Double.NaN));
+                worse = 0;
+                kept = 0;
+            }
         }
 
-        return new Solution(bestSchedule);
+        if (listener != null)
+            listener.onFinish(new SolverProgress("Annealing", iterations, System.nanoTime() - startTime, cost,
+                    bestCost, worse > 0 ? kept / (double) worse : Double.NaN, Double.NaN, Double.NaN));
+        return bestSchedule;
+    }
+
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Generate the random schedule solve() starts with
+     * @return valid schedule
+     */
+    Solution init() {
+        return init(e.getCompiledProblem(), new SplittableRandom(seed));
     }
 
     /**
      * Generate random schedule
+     * @param problem problem to solve
+     * @param random source of randomness
      * @return valid schedule
      */
-    private int[][] init() {
-        int[][] schedule = new int[timeslots][classrooms];
+    static Solution init(CompiledProblem problem, RandomGenerator random) {
+        int courses = problem.getCourseCount();
+        int[] coursesCount = problem.getLecturesPerCourse();
+        int timeslots = problem.getTimeslotsCount();
+        int classrooms = problem.getClassroomCount();
+        Solution schedule = new Solution(timeslots, classrooms, courses);
         int aux = 0;
         int randCourse = 0;
         Map<Integer, Integer> coursesMap = new HashMap<Integer, Integer>();
@@ -104,15 +170,15 @@ public class Annealing implements Solver {
             for (int cl = 0; cl < classrooms; cl++) {
                 aux = 0;
                 while (aux == 0) {
-                    randCourse = ThreadLocalRandom.current().nextInt(courses) + 1;
+                    randCourse = random.nextInt(courses) + 1;
                     aux = coursesMap.getOrDefault(randCourse, 0);
                 }
-                schedule[t][cl] = randCourse;
+                schedule.set(t, cl, randCourse);
                 coursesMap.put(randCourse, coursesMap.get(randCourse) - 1);
                 if (coursesMap.get(randCourse) == 0)
                     coursesMap.remove(randCourse);
                 else {
-                    schedule[timeslots - 1 - t][classrooms - 1 - cl] = randCourse;
+                    schedule.set(timeslots - 1 - t, classrooms - 1 - cl, randCourse);
                     coursesMap.put(randCourse, coursesMap.get(randCourse) - 1);
                     if (coursesMap.get(randCourse) == 0)
                         coursesMap.remove(randCourse);
@@ -124,24 +190,4 @@ public class Annealing implements Solver {
         
         return schedule;
     }
-
-    /**
-     * Swap two random Lectures
-     * @param schedule
-     * @return Random neighbor schedule
-     */
-    private int[][] swap(int[][] schedule) {
-        int[][] newSchedule = new int[schedule.length][];
-        for (int i = 0; i < timeslots; i++) {
-            newSchedule[i] = Arrays.copyOf(schedule[i], schedule[i].length);
-        }
-        int randTimeslot1 = ThreadLocalRandom.current().nextInt(timeslots);
-        int randTimeslot2 = ThreadLocalRandom.current().nextInt(timeslots);
-        int randClassroom1 = ThreadLocalRandom.current().nextInt(classrooms);
-        int randClassroom2 = ThreadLocalRandom.current().nextInt(classrooms);
-        int aux = newSchedule[randTimeslot1][randClassroom1];
-        newSchedule[randTimeslot1][randClassroom1] = newSchedule[randTimeslot2][randClassroom2];
-        newSchedule[randTimeslot2][randClassroom2] = aux;
-        return newSchedule;
-    }
 }
\ No newline at end of file
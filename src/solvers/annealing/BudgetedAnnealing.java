@@ -0,0 +1,202 @@
+package solvers.annealing;
+
+import java.util.SplittableRandom;
+
+import generator.CompiledProblem;
+import generator.Evaluator;
+import generator.IncrementalEvaluator;
+import generator.Problem;
+import generator.Solution;
+import solvers.Solver;
+import solvers.SolverListener;
+import solvers.SolverProgress;
+
+/**
+ * Simulated annealing that runs for a budget of time and/or iterations
+ * instead of until a temperature threshold.
+ *
+ * The initial temperature is calibrated from the score change of sampled
+ * moves. Then, the temperature is controlled so that the acceptance rate of
+ * worsening moves follows a target that decreases geometrically with the
+ * consumed budget, i.e. the schedule cools down exactly when the budget runs
+ * out. When the best score does not improve for a while, the temperature is
+ * raised again (reheat).
+ */
+public class BudgetedAnnealing implements Solver {
+	private final CompiledProblem problem;
+	private final long maxTime;
+	private final long maxIterations;
+	private final double[] operatorProbabilities;
+	private final long seed;
+	private SolverListener listener;
+
+	// target acceptance rate of worsening moves at the start and at the end of the budget
+	private static final double INITIAL_ACCEPTANCE = 0.5;
+	private static final double FINAL_ACCEPTANCE = 0.001;
+
+	// moves sampled to calibrate the initial temperature, at most an eighth of the move budget
+	private static final int CALIBRATION_MOVES = 256;
+	private static final int CALIBRATION_SHARE = 8;
+
+	// the clock is read every CHECK_INTERVAL moves, the temperature adapted every WINDOW moves
+	private static final int CHECK_INTERVAL = 16;
+	private static final int WINDOW = 512;
+
+	// temperature change per window to follow the target acceptance
+	private static final double ADAPTATION = 0.9;
+
+	// windows without improvement of the best score before reheating
+	private static final int STAGNATION_WINDOWS = 50;
+
+	// all the operators with the same probability
+	private static final double[] ALL_OPERATORS = { 1, 1, 1, 1 };
+
+	public BudgetedAnnealing(Problem p, Evaluator e, long maxTime, long seed) {
+		this(p, e, maxTime, 0, ALL_OPERATORS, seed);
+	}
+
+	/**
+	 * @param p problem to solve
+	 * @param e evaluator of the problem
+	 * @param maxTime maximum time in ms, 0 for no time limit
+	 * @param maxIterations maximum number of moves (including the ones sampled to
+	 *                      calibrate the temperature), 0 for no limit
+	 * @param operatorProbabilities selection probability of each neighbourhood
+	 *                              operator, indexed by {@link MoveEngine.Operator} ordinal
+	 * @param seed seed
+	 */
+	public BudgetedAnnealing(Problem p, Evaluator e, long maxTime, long maxIterations,
+			double[] operatorProbabilities, long seed) {
+		if (maxTime <= 0 && maxIterations <= 0)
+			throw new IllegalArgumentException("A time or iteration budget is needed");
+		this.problem = e.getCompiledProblem();
+		this.maxTime = maxTime;
+		this.maxIterations = maxIterations;
+		this.operatorProbabilities = operatorProbabilities.clone();
+		this.seed = seed;
+	}
+
+	public Solution solve() {
+		long startTime = System.nanoTime();
+		long timeBudget = maxTime * 1_000_000;
+		// created here, so that every call with the same seed gives the same run
+		SplittableRandom random = new SplittableRandom(seed);
+
+		Solution schedule = Annealing.init(problem, random);
+		IncrementalEvaluator ie = new IncrementalEvaluator(problem);
+		ie.bind(schedule);
+		MoveEngine moves = new MoveEngine(ie, problem, operatorProbabilities, random);
+		int score = ie.getScore();
+		Solution bestSchedule = new Solution(schedule);
+		int bestScore = score;
+
+		// calibration: the average worsening move is accepted with INITIAL_ACCEPTANCE
+		int calibrationMoves = maxIterations > 0
+				? (int) Math.min(CALIBRATION_MOVES, maxIterations / CALIBRATION_SHARE) : CALIBRATION_MOVES;
+		double worsening = 0;
+		int worseningCount = 0;
+		for (int i=0; i<calibrationMoves; i++) {
+			moves.apply();
+			int delta = score - ie.getScore();
+			moves.undo();
+			if (delta > 0) {
+				worsening += delta;
+				worseningCount++;
+			}
+		}
+		double meanWorsening = worseningCount > 0 ? worsening / worseningCount : 1;
+		double temperature = temperatureFor(meanWorsening, INITIAL_ACCEPTANCE);
+
+		long iterations = calibrationMoves;
+		double progress = 0;
+		int proposed = 0;
+		int accepted = 0;
+		int stagnation = 0;
+		boolean improved = false;
+		while (progress < 1) {
+			moves.apply();
+			int newScore = ie.getScore();
+			if (newScore >= score) {
+				score = newScore;
+				if (score > bestScore) {
+					bestSchedule.copyFrom(schedule);
+					bestScore = score;
+					improved = true;
+				}
+			} else {
+				proposed++;
+				if (random.nextDouble() < Math.exp((newScore - score) / temperature)) {
+					score = newScore;
+					accepted++;
+				} else {
+					moves.undo();
+				}
+			}
+			iterations++;
+
+			if (iterations % CHECK_INTERVAL == 0 || iterations == maxIterations)
+				progress = progress(startTime, timeBudget, iterations);
+
+			if (iterations % WINDOW == 0) {
+				// follow the target acceptance of this point of the budget
+				double target = INITIAL_ACCEPTANCE * Math.pow(FINAL_ACCEPTANCE / INITIAL_ACCEPTANCE, progress);
+				if (proposed > 0) {
+					if (accepted > target * proposed)
+						temperature *= ADAPTATION;
+					else
+						temperature /= ADAPTATION;
+				}
+				if (listener != null)
+					listener.onProgress(new SolverProgress("BudgetedAnnealing", iterations,
+							System.nanoTime() - startTime, score, bestScore,
+							proposed > 0 ? accepted / (double) proposed : Double.NaN, Double.NaN, Double.NaN));
+				proposed = 0;
+				accepted = 0;
+
+				// reheat when stuck, to a temperature accepting 4 times more than the target
+				stagnation = improved ? 0 : stagnation + 1;
+				improved = false;
+				if (stagnation >= STAGNATION_WINDOWS) {
+					temperature = Math.max(temperature,
+							temperatureFor(meanWorsening, Math.min(INITIAL_ACCEPTANCE, 4 * target)));
+					stagnation = 0;
+				}
+			}
+		}
+
+		if (listener != null)
+			listener.onFinish(new SolverProgress("BudgetedAnnealing", iterations, System.nanoTime() - startTime,
+					score, bestScore, Double.NaN, Double.NaN, Double.NaN));
+		return bestSchedule;
+	}
+
+	public void setListener(SolverListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Computes the consumed fraction of the budget, the largest between time and
+	 * iterations.
+	 */
+	private double progress(long startTime, long timeBudget, long iterations) {
+		double progress = 0;
+		if (timeBudget > 0)
+			progress = (System.nanoTime() - startTime) / (double) timeBudget;
+		if (maxIterations > 0)
+			progress = Math.max(progress, iterations / (double) maxIterations);
+		return progress;
+	}
+
+	/**
+	 * Computes the temperature at which a worsening move is accepted with the
+	 * given probability.
+	 *
+	 * @param delta score lost by the move
+	 * @param acceptance probability of acceptance, in (0,1)
+	 * @return temperature
+	 */
+	private static double temperatureFor(double delta, double acceptance) {
+		return -delta / Math.log(acceptance);
+	}
+
+}
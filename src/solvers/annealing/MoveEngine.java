@@ -0,0 +1,294 @@
+package solvers.annealing;
+
+import java.util.random.RandomGenerator;
+
+import generator.CompiledProblem;
+import generator.IncrementalEvaluator;
+import generator.Solution;
+
+/**
+ * Applies random moves to the schedule bound to an incremental evaluator, in
+ * place, and undoes the last one if it is rejected. Every move is a sequence
+ * of cell swaps, recorded in a preallocated log, so that neither applying nor
+ * undoing a move allocates memory.
+ *
+ * An instance is not thread-safe.
+ */
+public class MoveEngine {
+
+	/**
+	 * Neighbourhood operators.
+	 */
+	public enum Operator {
+		// swap the content of two random cells
+		SWAP,
+		// move a lecture into an empty cell
+		MOVE,
+		// swap two whole time slots
+		TIMESLOT_SWAP,
+		// swap between two time slots a chain of lectures sharing students
+		KEMPE
+	}
+
+	// number of random cells tried when looking for a lecture or an empty cell
+	private static final int ATTEMPTS = 16;
+
+	// values() clones the array at every call
+	private static final Operator[] OPERATORS = Operator.values();
+
+	private final IncrementalEvaluator evaluator;
+	private final RandomGenerator random;
+	private final int timeslotCount;
+	private final int classroomCount;
+
+	// groups enrolled in each course (index course-1), sorted
+	private final int[][] courseGroups;
+
+	// cumulative probabilities of the operators (index ordinal)
+	private final double[] cumulativeProbabilities;
+
+	// cells swapped by the last move, 4 values (t1,cl1,t2,cl2) per swap
+	private final int[] log;
+	private int logSize;
+
+	// buffers of the Kempe chain
+	private final boolean[] inChain1;
+	private final boolean[] inChain2;
+	private final int[] queue;
+
+	/**
+	 * @param evaluator incremental evaluator, already bound to the schedule to change
+	 * @param problem problem of the schedule
+	 * @param probabilities selection probability of each operator (index
+	 *                      ordinal), normalized if they do not sum to 1
+	 * @param random source of randomness
+	 */
+	public MoveEngine(IncrementalEvaluator evaluator, CompiledProblem problem, double[] probabilities,
+			RandomGenerator random) {
+		if (probabilities.length != OPERATORS.length)
+			throw new IllegalArgumentException("One probability per operator is needed");
+
+		this.evaluator = evaluator;
+		this.random = random;
+		this.timeslotCount = problem.getTimeslotsCount();
+		this.classroomCount = problem.getClassroomCount();
+		this.courseGroups = new int[problem.getCourseCount()][];
+		for (int c=0; c<courseGroups.length; c++)
+			courseGroups[c] = problem.getCourseGroups(c+1);
+
+		double sum = 0;
+		this.cumulativeProbabilities = new double[probabilities.length];
+		for (int i=0; i<probabilities.length; i++) {
+			if (probabilities[i] < 0)
+				throw new IllegalArgumentException("Negative probability");
+			sum += probabilities[i];
+			cumulativeProbabilities[i] = sum;
+		}
+		if (sum == 0)
+			throw new IllegalArgumentException("At least one operator must have positive probability");
+		for (int i=0; i<probabilities.length; i++)
+			cumulativeProbabilities[i] /= sum;
+
+		// a move swaps at most one cell per classroom
+		this.log = new int[4 * classroomCount];
+		this.inChain1 = new boolean[classroomCount];
+		this.inChain2 = new boolean[classroomCount];
+		this.queue = new int[2 * classroomCount];
+	}
+
+	/**
+	 * Applies a move with an operator chosen according to the probabilities.
+	 *
+	 * @return operator applied
+	 */
+	public Operator apply() {
+		double r = random.nextDouble();
+		int i = 0;
+		while (i < OPERATORS.length - 1 && r >= cumulativeProbabilities[i])
+			i++;
+		apply(OPERATORS[i]);
+		return OPERATORS[i];
+	}
+
+	/**
+	 * Applies a move with the given operator. The move may leave the schedule
+	 * unchanged (e.g. no empty cell found, or a Kempe chain not fitting in the
+	 * classrooms).
+	 *
+	 * @param operator operator
+	 */
+	public void apply(Operator operator) {
+		logSize = 0;
+		switch (operator) {
+		case SWAP:
+			swap(random.nextInt(timeslotCount), random.nextInt(classroomCount),
+					random.nextInt(timeslotCount), random.nextInt(classroomCount));
+			break;
+		case MOVE:
+			move();
+			break;
+		case TIMESLOT_SWAP:
+			swapTimeslots(random.nextInt(timeslotCount), random.nextInt(timeslotCount));
+			break;
+		case KEMPE:
+			kempe(random.nextInt(timeslotCount), random.nextInt(classroomCount), random.nextInt(timeslotCount));
+			break;
+		}
+	}
+
+	/**
+	 * Undoes the last move, restoring the schedule and the score.
+	 */
+	public void undo() {
+		// swaps are their own inverse, undo them in reverse order
+		for (int i=logSize-4; i>=0; i-=4)
+			evaluator.applySwap(log[i], log[i+1], log[i+2], log[i+3]);
+		logSize = 0;
+	}
+
+	private void swap(int t1, int cl1, int t2, int cl2) {
+		evaluator.applySwap(t1, cl1, t2, cl2);
+		log[logSize++] = t1;
+		log[logSize++] = cl1;
+		log[logSize++] = t2;
+		log[logSize++] = cl2;
+	}
+
+	private void move() {
+		Solution schedule = evaluator.getSchedule();
+
+		// random lecture and random empty cell, with a bounded number of attempts
+		for (int i=0; i<ATTEMPTS; i++) {
+			int t1 = random.nextInt(timeslotCount);
+			int cl1 = random.nextInt(classroomCount);
+			if (schedule.get(t1, cl1) == 0)
+				continue;
+			for (int j=0; j<ATTEMPTS; j++) {
+				int t2 = random.nextInt(timeslotCount);
+				int cl2 = random.nextInt(classroomCount);
+				if (schedule.get(t2, cl2) == 0) {
+					swap(t1, cl1, t2, cl2);
+					return;
+				}
+			}
+			return;		// probably (almost) no empty cell
+		}
+	}
+
+	private void swapTimeslots(int t1, int t2) {
+		if (t1 == t2)
+			return;
+		for (int cl=0; cl<classroomCount; cl++)
+			swap(t1, cl, t2, cl);
+	}
+
+	/**
+	 * Swaps between two time slots the Kempe chain starting from a lecture, i.e.
+	 * the lectures connected to it by sharing students, alternating between the
+	 * two time slots. Moving the whole chain does not create overlaps between
+	 * lectures of the chain and lectures left in place.
+	 *
+	 * @param t1 time slot of the starting lecture
+	 * @param cl1 classroom of the starting lecture
+	 * @param t2 other time slot
+	 */
+	private void kempe(int t1, int cl1, int t2) {
+		Solution schedule = evaluator.getSchedule();
+		if (t1 == t2 || schedule.get(t1, cl1) == 0)
+			return;
+
+		// breadth-first search of the chain, queue entries are classroom (t1) or -1-classroom (t2)
+		for (int cl=0; cl<classroomCount; cl++) {
+			inChain1[cl] = false;
+			inChain2[cl] = false;
+		}
+		int head = 0;
+		int tail = 0;
+		int chain1 = 1;
+		int chain2 = 0;
+		inChain1[cl1] = true;
+		queue[tail++] = cl1;
+		while (head < tail) {
+			int entry = queue[head++];
+			boolean first = entry >= 0;
+			int course = first ? schedule.get(t1, entry) : schedule.get(t2, -1-entry);
+			boolean[] otherChain = first ? inChain2 : inChain1;
+			int otherTimeslot = first ? t2 : t1;
+			for (int cl=0; cl<classroomCount; cl++) {
+				int other = schedule.get(otherTimeslot, cl);
+				if (other == 0 || otherChain[cl] || !conflict(course, other))
+					continue;
+				otherChain[cl] = true;
+				queue[tail++] = first ? -1-cl : cl;
+				if (first)
+					chain2++;
+				else
+					chain1++;
+			}
+		}
+
+		// the chain must fit in the empty cells of the other time slot
+		int empty1 = 0;
+		int empty2 = 0;
+		for (int cl=0; cl<classroomCount; cl++) {
+			if (schedule.get(t1, cl) == 0)
+				empty1++;
+			if (schedule.get(t2, cl) == 0)
+				empty2++;
+		}
+		if (chain1 > chain2 + empty2 || chain2 > chain1 + empty1)
+			return;
+
+		// pair the lectures of the chain, then use empty cells for the remaining ones
+		int cl2 = 0;
+		for (int cl=0; cl<classroomCount; cl++) {
+			if (!inChain1[cl])
+				continue;
+			while (cl2 < classroomCount && !inChain2[cl2])
+				cl2++;
+			if (cl2 < classroomCount) {
+				inChain2[cl2] = false;
+				swap(t1, cl, t2, cl2);
+			} else {
+				swap(t1, cl, t2, emptyCell(schedule, t2));
+			}
+		}
+		for (cl2=0; cl2<classroomCount; cl2++)
+			if (inChain2[cl2])
+				swap(t1, emptyCell(schedule, t1), t2, cl2);
+	}
+
+	private int emptyCell(Solution schedule, int t) {
+		for (int cl=0; cl<classroomCount; cl++)
+			if (schedule.get(t, cl) == 0)
+				return cl;
+		throw new IllegalStateException("No empty cell in time slot " + t);
+	}
+
+	/**
+	 * Checks if two courses share students, i.e. if their lectures overlap when
+	 * in the same time slot.
+	 *
+	 * @param course1 first course ID
+	 * @param course2 second course ID
+	 * @return true if the courses share at least one student group
+	 */
+	private boolean conflict(int course1, int course2) {
+		if (course1 == course2)
+			return true;
+		int[] groups1 = courseGroups[course1-1];
+		int[] groups2 = courseGroups[course2-1];
+		int i = 0;
+		int j = 0;
+		while (i < groups1.length && j < groups2.length) {
+			if (groups1[i] == groups2[j])
+				return true;
+			else if (groups1[i] < groups2[j])
+				i++;
+			else
+				j++;
+		}
+		return false;
+	}
+
+}
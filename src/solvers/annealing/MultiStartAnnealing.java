@@ -0,0 +1,124 @@
+package solvers.annealing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import generator.Evaluator;
+import generator.Problem;
+import generator.Solution;
+import solvers.Solver;
+import solvers.SolverListener;
+import solvers.SolverProgress;
+
+/**
+ * Runs independent restarts of simulated annealing in parallel and returns
+ * the best schedule. Each restart has its own generator, split from a master
+ * seed, so the result depends only on the seed and not on the number of
+ * threads or on the order in which the restarts are run.
+ */
+public class MultiStartAnnealing implements Solver {
+	private final int restarts;
+	private final int temperature;
+	private final double coolingRate;
+	private final Evaluator evaluator;
+	private final double[] operatorProbabilities;
+	private final long seed;
+	private volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+	private SolverListener listener;
+
+	// by default, only swaps of two random lectures as in Annealing
+	private static final double[] SWAP_ONLY = { 1, 0, 0, 0 };
+
+	public MultiStartAnnealing(int restarts, int temperature, double coolingRate, Problem problem,
+			Evaluator evaluator, long seed) {
+		this(restarts, temperature, coolingRate, problem, evaluator, SWAP_ONLY, seed);
+	}
+
+	/**
+	 * @param restarts number of restarts, at least 1
+	 * @param temperature initial temperature of each restart
+	 * @param coolingRate cooling rate of each restart
+	 * @param problem problem to solve
+	 * @param evaluator evaluator of the problem
+	 * @param operatorProbabilities selection probability of each neighbourhood
+	 *                              operator, indexed by {@link MoveEngine.Operator} ordinal
+	 * @param seed master seed
+	 */
+	public MultiStartAnnealing(int restarts, int temperature, double coolingRate, Problem problem,
+			Evaluator evaluator, double[] operatorProbabilities, long seed) {
+		if (restarts < 1)
+			throw new IllegalArgumentException("At least one restart is needed");
+		this.restarts = restarts;
+		this.temperature = temperature;
+		this.coolingRate = coolingRate;
+		this.evaluator = evaluator;
+		this.operatorProbabilities = operatorProbabilities.clone();
+		this.seed = seed;
+	}
+
+	public Solution solve() {
+		long startTime = System.nanoTime();
+		// drawn in order, so that restart i always gets the same seed
+		SplittableRandom master = new SplittableRandom(seed);
+		List<Callable<Solution>> tasks = new ArrayList<>(restarts);
+		for (int i=0; i<restarts; i++) {
+			Annealing annealing = new Annealing(temperature, coolingRate, evaluator, operatorProbabilities,
+					master.nextLong());
+			tasks.add(annealing::solve);
+		}
+
+		// best of the restarts, the first one in case of ties
+		Solution bestSchedule = null;
+		int bestCost = 0;
+		int done = 0;
+		for (Future<Solution> f : pool.invokeAll(tasks)) {
+			Solution schedule;
+			try {
+				schedule = f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+			int cost = evaluator.evaluate(schedule);
+			if (bestSchedule == null || cost > bestCost) {
+				bestSchedule = schedule;
+				bestCost = cost;
+			}
+			// one report per restart, the iterations are the restarts done
+			done++;
+			if (listener != null)
+				listener.onProgress(new SolverProgress("MultiStartAnnealing", done, System.nanoTime() - startTime,
+						cost, bestCost, Double.NaN, Double.NaN, Double.NaN));
+		}
+
+		if (listener != null && bestSchedule != null)
+			listener.onFinish(new SolverProgress("MultiStartAnnealing", done, System.nanoTime() - startTime,
+					bestCost, bestCost, Double.NaN, Double.NaN, Double.NaN));
+		return bestSchedule;
+	}
+
+	public void setListener(SolverListener listener) {
+		this.listener = listener;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the pool running the restarts (the common pool by default).
+	 *
+	 * @param pool pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+}
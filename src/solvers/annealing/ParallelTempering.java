@@ -0,0 +1,243 @@
+package solvers.annealing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import generator.CompiledProblem;
+import generator.Evaluator;
+import generator.IncrementalEvaluator;
+import generator.Problem;
+import generator.Solution;
+import solvers.Solver;
+import solvers.SolverListener;
+import solvers.SolverProgress;
+
+/**
+ * Parallel tempering (replica exchange): several annealing chains run in
+ * parallel, each at a fixed temperature of a geometric ladder. Periodically,
+ * chains at neighbouring temperatures exchange their schedules with the
+ * Metropolis criterion, so that good schedules found at high temperature can
+ * be refined at low temperature.
+ *
+ * The best schedule found by any chain is published lock-free.
+ */
+public class ParallelTempering implements Solver {
+	private final CompiledProblem problem;
+	private final double[] temperatures;
+	private final int stepsPerExchange;
+	private final long maxTime;
+	private final long seed;
+	private final double[] operatorProbabilities;
+	private volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+	private SolverListener listener;
+
+	// all the operators with the same probability
+	private static final double[] ALL_OPERATORS = { 1, 1, 1, 1 };
+
+	/**
+	 * Best schedule found so far, immutable once published.
+	 */
+	private static final class Best {
+		final int score;
+		final Solution schedule;
+
+		Best(int score, Solution schedule) {
+			this.score = score;
+			this.schedule = schedule;
+		}
+	}
+
+	/**
+	 * One annealing chain at a fixed temperature.
+	 */
+	private final class Replica implements Callable<Void> {
+		final Solution schedule;
+		final IncrementalEvaluator evaluator;
+		final MoveEngine moves;
+		final SplittableRandom random;
+		final Solution bestSchedule;
+		int bestScore;
+		double temperature;
+
+		Replica(SplittableRandom random) {
+			this.random = random;
+			this.schedule = Annealing.init(problem, random);
+			this.evaluator = new IncrementalEvaluator(problem);
+			evaluator.bind(schedule);
+			this.moves = new MoveEngine(evaluator, problem, operatorProbabilities, random);
+			this.bestSchedule = new Solution(schedule);
+			this.bestScore = evaluator.getScore();
+		}
+
+		@Override
+		public Void call() {
+			int score = evaluator.getScore();
+			int bestBefore = bestScore;
+			for (int i=0; i<stepsPerExchange; i++) {
+				moves.apply();
+				int newScore = evaluator.getScore();
+				// Metropolis criterion, the score is maximized
+				if (newScore >= score || random.nextDouble() < Math.exp((newScore - score) / temperature)) {
+					score = newScore;
+					if (score > bestScore) {
+						bestSchedule.copyFrom(schedule);
+						bestScore = score;
+					}
+				} else {
+					moves.undo();
+				}
+			}
+			if (bestScore > bestBefore)
+				publish(bestScore, bestSchedule);
+			return null;
+		}
+	}
+
+	private final AtomicReference<Best> best = new AtomicReference<>();
+
+	public ParallelTempering(Problem problem, Evaluator evaluator, int replicas, double minTemperature,
+			double maxTemperature, int stepsPerExchange, long maxTime, long seed) {
+		this(problem, evaluator, replicas, minTemperature, maxTemperature, stepsPerExchange, maxTime, seed,
+				ALL_OPERATORS);
+	}
+
+	/**
+	 * @param problem problem to solve
+	 * @param evaluator evaluator of the problem
+	 * @param replicas number of chains, at least 1
+	 * @param minTemperature temperature of the coldest chain
+	 * @param maxTemperature temperature of the hottest chain
+	 * @param stepsPerExchange moves of each chain between two exchange rounds
+	 * @param maxTime maximum time in ms
+	 * @param seed seed of the chains
+	 * @param operatorProbabilities selection probability of each neighbourhood
+	 *                              operator, indexed by {@link MoveEngine.Operator} ordinal
+	 */
+	public ParallelTempering(Problem problem, Evaluator evaluator, int replicas, double minTemperature,
+			double maxTemperature, int stepsPerExchange, long maxTime, long seed, double[] operatorProbabilities) {
+		if (replicas < 1)
+			throw new IllegalArgumentException("At least one replica is needed");
+		if (minTemperature <= 0 || maxTemperature < minTemperature)
+			throw new IllegalArgumentException("Temperatures must satisfy 0 < min <= max");
+
+		this.problem = evaluator.getCompiledProblem();
+		this.stepsPerExchange = stepsPerExchange;
+		this.maxTime = maxTime;
+		this.seed = seed;
+		this.operatorProbabilities = operatorProbabilities.clone();
+
+		// geometric ladder, from the coldest to the hottest
+		this.temperatures = new double[replicas];
+		for (int i=0; i<replicas; i++)
+			temperatures[i] = replicas == 1 ? minTemperature
+					: minTemperature * Math.pow(maxTemperature / minTemperature, i / (double) (replicas - 1));
+	}
+
+	public Solution solve() {
+		long startTime = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
+		SplittableRandom master = new SplittableRandom(seed);
+		best.set(null);
+
+		// ladder[i] is the replica at temperature i
+		Replica[] ladder = new Replica[temperatures.length];
+		List<Callable<Void>> tasks = new ArrayList<>(ladder.length);
+		for (int i=0; i<ladder.length; i++) {
+			ladder[i] = new Replica(master.split());
+			ladder[i].temperature = temperatures[i];
+			publish(ladder[i].bestScore, ladder[i].bestSchedule);
+			tasks.add(ladder[i]);
+		}
+
+		int round = 0;
+		while (System.currentTimeMillis() - startTime < maxTime) {
+			// run the chains
+			for (Future<Void> f : pool.invokeAll(tasks)) {
+				try {
+					f.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return best.get().schedule;
+				} catch (ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				}
+			}
+
+			// propose exchanges between neighbours, alternating even and odd pairs
+			int proposed = 0;
+			int accepted = 0;
+			for (int i=round%2; i+1<ladder.length; i+=2) {
+				proposed++;
+				Replica cold = ladder[i];
+				Replica hot = ladder[i+1];
+				double delta = (1 / cold.temperature - 1 / hot.temperature)
+						* (hot.evaluator.getScore() - cold.evaluator.getScore());
+				if (delta >= 0 || master.nextDouble() < Math.exp(delta)) {
+					ladder[i] = hot;
+					ladder[i+1] = cold;
+					hot.temperature = temperatures[i];
+					cold.temperature = temperatures[i+1];
+					accepted++;
+				}
+			}
+			round++;
+
+			if (listener != null)
+				listener.onProgress(progress(round, startNanos, ladder[0],
+						proposed > 0 ? accepted / (double) proposed : Double.NaN));
+		}
+
+		if (listener != null)
+			listener.onFinish(progress(round, startNanos, ladder[0], Double.NaN));
+		return best.get().schedule;
+	}
+
+	private SolverProgress progress(int rounds, long startNanos, Replica coldest, double acceptanceRate) {
+		return new SolverProgress("ParallelTempering", (long) rounds * stepsPerExchange * temperatures.length,
+				System.nanoTime() - startNanos, coldest.evaluator.getScore(), best.get().score, acceptanceRate,
+				Double.NaN, Double.NaN);
+	}
+
+	/**
+	 * Publishes a schedule if it is better than the best one so far. The
+	 * schedule is copied only when it is published.
+	 *
+	 * @param score score of the schedule
+	 * @param schedule schedule
+	 */
+	private void publish(int score, Solution schedule) {
+		Best current = best.get();
+		Best candidate = null;
+		while (current == null || score > current.score) {
+			if (candidate == null)
+				candidate = new Best(score, new Solution(schedule));
+			if (best.compareAndSet(current, candidate))
+				return;
+			current = best.get();
+		}
+	}
+
+	public void setListener(SolverListener listener) {
+		this.listener = listener;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the pool running the chains (the common pool by default).
+	 *
+	 * @param pool pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+}
@@ -1,8 +1,10 @@
 package solvers.genetic;
 
 import java.util.Arrays;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
+import generator.CompiledProblem;
 import generator.Evaluator;
 import generator.Problem;
 import generator.Solution;
@@ -18,12 +20,68 @@ import generator.Solution;
  * lectures.
  */
 public class Chromosome {
-	private String genes;
+	/*
+	 * The genes are the course IDs of the cells of the schedule (row by row),
+	 * written in binary with genesPerCourse bits. They are packed in 64-bit
+	 * words, coursesPerWord per word, the first cell of a word in the lowest
+	 * bits. A course never spans two words.
+	 */
+	private long[] genes;
+	private int genesPerCourse;
+	private int coursesPerWord;
 	private int fitnessValue;
-	private Problem problem;
+	private CompiledProblem problem;
 	private Evaluator evaluator;
 	private Solution solution;
-	private static final Random random = new Random();
+	private final RandomGenerator random;
+	
+	/*
+	 * Index of the schedule, so that offspring and mutations are repaired and
+	 * evaluated looking only at what changes: lectures scheduled per course
+	 * (index course-1), courses scheduled in each time slot (bitset of maskWords
+	 * words per time slot) and lectures the students can take in each time slot.
+	 */
+	private int[] scheduledLectures;
+	private long[] presence;
+	private int[] takenLectures;
+	
+	// buffers of repair(), one per thread so that offspring can be produced in parallel
+	private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+	
+	private static class Scratch {
+		// time slot (+1) in which each course has been seen last
+		int[] seenInTimeslot = new int[0];
+		int[] scheduledLecturesCount = new int[0];
+		int[] row = new int[0];
+		
+		// time slots changed by an incremental repair
+		boolean[] dirty = new boolean[0];
+		int[] dirtyTimeslots = new int[0];
+		int dirtyCount;
+		
+		Scratch ensure(CompiledProblem problem) {
+			int courseCount = problem.getCourseCount();
+			int timeslotCount = problem.getTimeslotsCount();
+			if (seenInTimeslot.length < courseCount) {
+				seenInTimeslot = new int[courseCount];
+				scheduledLecturesCount = new int[courseCount];
+			}
+			if (row.length != problem.getClassroomCount())
+				row = new int[problem.getClassroomCount()];
+			if (dirty.length < timeslotCount) {
+				dirty = new boolean[timeslotCount];
+				dirtyTimeslots = new int[timeslotCount];
+			}
+			return this;
+		}
+		
+		void markDirty(int t) {
+			if (!dirty[t]) {
+				dirty[t] = true;
+				dirtyTimeslots[dirtyCount++] = t;
+			}
+		}
+	}
 	
 	/**
 	 * Constructs a chromosome with random but valid genes.
@@ -31,10 +89,34 @@ public class Chromosome {
 	 * @param problem problem to solve
 	 */
 	public Chromosome(Problem problem, Evaluator evaluator) {
+		this(evaluator);
+	}
+	
+	/**
+	 * Constructs a chromosome with random but valid genes for the problem of the
+	 * evaluator.
+	 * 
+	 * @param evaluator evaluator of the problem to solve
+	 */
+	public Chromosome(Evaluator evaluator) {
+		this(evaluator, new SplittableRandom());
+	}
+	
+	/**
+	 * Constructs a chromosome with random but valid genes for the problem of the
+	 * evaluator.
+	 * 
+	 * @param evaluator evaluator of the problem to solve
+	 * @param random source of randomness, also used by the offspring and by
+	 *               mutations (not thread-safe)
+	 */
+	public Chromosome(Evaluator evaluator, RandomGenerator random) {
+		this.random = random;
+		CompiledProblem problem = evaluator.getCompiledProblem();
 		int timeslotCount = problem.getTimeslotsCount();
         int classroomCount = problem.getClassroomCount();
         int courseCount = problem.getCourseCount();
-        int[][] schedule = new int[timeslotCount][classroomCount];
+        Solution schedule = new Solution(timeslotCount, classroomCount, courseCount);
         int[] courseLectureCount = problem.getLecturesPerCourse();
         int[] courseLectureRemaining = Arrays.copyOf(courseLectureCount, courseCount);
         int completedCourseCount = 0;
@@ -50,7 +132,7 @@ public class Chromosome {
                     if (courseLectureRemaining[course-1] > 0)
                     	found = true;
                 }
-                schedule[t][cl] = course;
+                schedule.set(t, cl, course);
                 courseLectureRemaining[course-1]--;
                 if (courseLectureRemaining[course-1] == 0)
                 	completedCourseCount++;
@@ -62,7 +144,9 @@ public class Chromosome {
         // set attributes
         this.problem = problem;
         this.evaluator = evaluator;
-        this.solution = new Solution(schedule);
+        this.solution = schedule;
+        this.genesPerCourse = genesPerCourse();
+        this.coursesPerWord = Long.SIZE / genesPerCourse;
         this.genes = toGenes();
         
         // make it valid
@@ -77,11 +161,86 @@ public class Chromosome {
 	 * @param y parent 2
 	 */
 	public Chromosome(Chromosome x, Chromosome y) {
-		this.problem = x.problem;
-		this.evaluator = x.evaluator;
-		this.genes = crossover(x, y);
-		this.solution = toSolution();
-		this.repair();
+		this(x, y, x.random);
+	}
+	
+	/**
+	 * Constructs a chromosome as offspring of two chromosomes, with its own
+	 * source of randomness. The offspring is then repaired in order to be valid.
+	 * 
+	 * @param x parent 1
+	 * @param y parent 2
+	 * @param random source of randomness for the crossover and the next
+	 *               mutations (not thread-safe)
+	 */
+	public Chromosome(Chromosome x, Chromosome y, RandomGenerator random) {
+		this(x, random);
+		recombine(x, y, random);
+	}
+	
+	/**
+	 * Constructs a copy of a chromosome, e.g. to keep it while the population
+	 * it belongs to is recycled.
+	 * 
+	 * @param other chromosome to copy
+	 */
+	Chromosome(Chromosome other) {
+		this(other, other.random);
+		copyFrom(other);
+	}
+	
+	// buffers of the same size as the ones of another chromosome, to be filled
+	private Chromosome(Chromosome other, RandomGenerator random) {
+		this.problem = other.problem;
+		this.evaluator = other.evaluator;
+		this.random = random;
+		this.genesPerCourse = other.genesPerCourse;
+		this.coursesPerWord = other.coursesPerWord;
+		this.genes = new long[other.genes.length];
+		this.solution = new Solution(problem.getTimeslotsCount(), problem.getClassroomCount(),
+				problem.getCourseCount());
+		this.scheduledLectures = new int[other.scheduledLectures.length];
+		this.presence = new long[other.presence.length];
+		this.takenLectures = new int[other.takenLectures.length];
+	}
+	
+	/**
+	 * Overwrites the chromosome with another one of the same problem, without
+	 * evaluating it again.
+	 * 
+	 * @param other chromosome to copy
+	 */
+	void copyFrom(Chromosome other) {
+		System.arraycopy(other.genes, 0, genes, 0, genes.length);
+		solution.copyFrom(other.solution);
+		System.arraycopy(other.scheduledLectures, 0, scheduledLectures, 0, scheduledLectures.length);
+		System.arraycopy(other.presence, 0, presence, 0, presence.length);
+		System.arraycopy(other.takenLectures, 0, takenLectures, 0, takenLectures.length);
+		fitnessValue = other.fitnessValue;
+	}
+	
+	/**
+	 * Overwrites the chromosome with an offspring of two chromosomes of the same
+	 * problem, reusing its buffers. The offspring is then repaired in order to
+	 * be valid.
+	 * 
+	 * @param x parent 1, not this chromosome
+	 * @param y parent 2, not this chromosome
+	 * @param random source of randomness for the crossover
+	 */
+	void recombine(Chromosome x, Chromosome y, RandomGenerator random) {
+		if (x == this || y == this)
+			throw new IllegalArgumentException("A chromosome cannot be overwritten by its own offspring");
+		int crossoverTimeslot = random.nextInt(problem.getTimeslotsCount());
+		crossover(x, y, crossoverTimeslot, genes);
+		
+		// the time slots are copied from the parents instead of decoding the genes
+		Scratch s = scratch.get().ensure(problem);
+		for (int t=0; t<problem.getTimeslotsCount(); t++) {
+			(t < crossoverTimeslot ? x : y).solution.copyRow(t, s.row);
+			solution.setRow(t, s.row);
+		}
+		repair(x, y, crossoverTimeslot);
 	}
 	
 	/**
@@ -89,16 +248,61 @@ public class Chromosome {
 	 * repaired in order to be valid.
 	 */
 	public void mutate() {
-		int n = genes.length();
-		int m = random.nextInt(n);						// index of mutating gene
-		char g = genes.charAt(m) == '0' ? '1' : '0';	// mutated gene
-		this.genes = genes.substring(0, m) + g + genes.substring(m+1, n);
-		this.solution = toSolution();
-		this.repair();
+		mutate(random);
+	}
+	
+	/**
+	 * Mutates one gene of the chromosome, chosen with the given source of
+	 * randomness.
+	 * 
+	 * @param random source of randomness
+	 */
+	void mutate(RandomGenerator random) {
+		int cellCount = problem.getTimeslotsCount() * problem.getClassroomCount();
+		mutate(random.nextInt(cellCount * genesPerCourse));	// index of mutating gene
+	}
+	
+	/**
+	 * Flips a gene, then repairs the chromosome. Only the time slot of the gene
+	 * and the lectures of the new course are examined.
+	 * 
+	 * @param m index of the gene
+	 */
+	void mutate(int m) {
+		int classroomCount = problem.getClassroomCount();
+		int cell = m / genesPerCourse;
+		int t = cell / classroomCount;
+		int cl = cell % classroomCount;
+		int shift = (cell % coursesPerWord) * genesPerCourse;
+		int course = (int) ((genes[cell / coursesPerWord] ^ 1L << (shift + m % genesPerCourse)) >>> shift
+				& ((1L << genesPerCourse) - 1));
+		Scratch s = scratch.get().ensure(problem);
+		
+		if (solution.get(t, cl) != 0)
+			cancel(t, cl, s);
+		
+		// mutation can cause an invalid course ID, then the cell stays empty
+		if (course > 0 && course <= problem.getCourseCount()) {
+			if (isScheduled(t, course)) {
+				// infeasible lecture, the one in the first classroom is kept
+				int other = classroomOf(t, course);
+				if (other > cl) {
+					cancel(t, other, s);
+					schedule(t, cl, course, s);
+				}
+			} else {
+				schedule(t, cl, course, s);
+				if (scheduledLectures[course-1] > problem.getLecturesPerCourse()[course-1])
+					cancelLast(course, 1, s);
+			}
+		}
+		
+		refresh(s);
 	}
 	
 	/**
-	 * Compute the fitness value of the chromosome.
+	 * Compute the fitness value of the chromosome from the index, the same as
+	 * the evaluator (a repaired chromosome has no infeasible lectures).
 	 * 
 	 * Notice that the fitness value must not be negative for a correct selection in
 	 * GA.
@@ -106,7 +310,13 @@ public class Chromosome {
 	 * @return fitness value
 	 */
 	private int fitness() {
-    	return evaluator.evaluate(this.solution);
+		int[] desiredLecturesCount = problem.getLecturesPerCourse();
+		int total = 0;
+		for (int taken : takenLectures)
+			total += taken;
+		for (int c=0; c<scheduledLectures.length; c++)
+			total -= Math.abs(desiredLecturesCount[c] - scheduledLectures[c]);
+		return total;
     }
 	
 	/**
@@ -114,71 +324,240 @@ public class Chromosome {
 	 * 
 	 * @param x parent 1
 	 * @param y parent 2
+	 * @param crossoverTimeslot first time slot taken from parent 2
 	 * @return sequence of genes of the offspring
 	 */
-	private String crossover(Chromosome x, Chromosome y) {
-		int n = x.genes.length();
-		int genesPerTimeslot = problem.getClassroomCount() * genesPerCourse();
-		int crossoverPoint;
+	long[] crossover(Chromosome x, Chromosome y, int crossoverTimeslot) {
+		return crossover(x, y, crossoverTimeslot, new long[x.genes.length]);
+	}
+	
+	private long[] crossover(Chromosome x, Chromosome y, int crossoverTimeslot, long[] offspring) {
+		int n = x.genes.length;
 		
 		/*
 		 * Random crossover point with the constraint of separating whole time slots.
 		 * This way, the offspring is valid, i.e. it does not have 2 lectures of the
 		 * same course in the same time slot.
 		 */
-		crossoverPoint = random.nextInt(n);
-		crossoverPoint = (crossoverPoint / genesPerTimeslot) * genesPerTimeslot;
+		int crossoverPoint = crossoverTimeslot * problem.getClassroomCount();
+		int word = crossoverPoint / coursesPerWord;
+		int bits = (crossoverPoint % coursesPerWord) * genesPerCourse;
 		
-		 // first part from one parent and the second part from the other
-		return x.genes.substring(0, crossoverPoint) + y.genes.substring(crossoverPoint, n);
+		// first part from one parent and the second part from the other, the word in between is merged
+		System.arraycopy(x.genes, 0, offspring, 0, word);
+		if (word < n) {
+			long mask = (1L << bits) - 1;	// cells before the crossover point
+			offspring[word] = (x.genes[word] & mask) | (y.genes[word] & ~mask);
+			System.arraycopy(y.genes, word + 1, offspring, word + 1, n - word - 1);
+		}
+		return offspring;
 	}
 	
 	/**
-	 * Repairs the chromosome, canceling infeasible and excess lectures.
+	 * Repairs the chromosome, canceling infeasible and excess lectures, and
+	 * rebuilds the index.
 	 */
-	private void repair() {
+	void repair() {
 		int timeslotCount = problem.getTimeslotsCount();
         int classroomCount = problem.getClassroomCount();
         int courseCount = problem.getCourseCount();
-		int[][] schedule = solution.getSchedule();
-		boolean[] lectureInTimeslot = new boolean[problem.getCourseCount()];
-		int[] scheduledLecturesCount = new int[courseCount];
+		Solution schedule = solution;
+		Scratch s = scratch.get().ensure(problem);
+		int[] seenInTimeslot = s.seenInTimeslot;
+		int[] scheduledLecturesCount = s.scheduledLecturesCount;
 		int[] desiredLecturesCount = problem.getLecturesPerCourse();
+		Arrays.fill(seenInTimeslot, 0, courseCount, 0);
+		Arrays.fill(scheduledLecturesCount, 0, courseCount, 0);
 		
 		// cancel infeasible lectures
 		for (int t=0; t<timeslotCount; t++) {
 			for (int cl=0; cl<classroomCount; cl++) {
+				int course = schedule.get(t, cl);
 				// mutation can cause an invalid course ID
-				if (schedule[t][cl] > courseCount) {
-					schedule[t][cl] = 0;
-				} else if (schedule[t][cl] > 0) {
+				if (course > courseCount) {
+					schedule.set(t, cl, 0);
+				} else if (course > 0) {
 					// cancel lecture if there is already one in this time slot for this course
-					if (lectureInTimeslot[schedule[t][cl] - 1])
-						schedule[t][cl] = 0;
+					if (seenInTimeslot[course - 1] == t + 1)
+						schedule.set(t, cl, 0);
 					else
-						lectureInTimeslot[schedule[t][cl] - 1] = true;
+						seenInTimeslot[course - 1] = t + 1;
 				}
 			}
-			Arrays.fill(lectureInTimeslot, false);
 		}
 		
 		// cancel excess lectures
 		for (int t=0; t<timeslotCount; t++) {
 			for (int cl=0; cl<classroomCount; cl++) {
-				int course = schedule[t][cl];
-				if (schedule[t][cl] > 0) {
+				int course = schedule.get(t, cl);
+				if (course > 0) {
 					scheduledLecturesCount[course-1]++;
 					// cancel if there are already enough lectures for this course
 					if (scheduledLecturesCount[course-1] > desiredLecturesCount[course-1])
-						schedule[t][cl] = 0;
+						schedule.set(t, cl, 0);
 				}
 			}
 		}
 		
 		// refresh
-		this.solution = new Solution(schedule);
 		this.genes = toGenes();
-		this.fitnessValue = fitness();
+		index(s);
+	}
+	
+	/**
+	 * Builds the index of the schedule and computes the fitness value.
+	 */
+	private void index(Scratch s) {
+		int timeslotCount = problem.getTimeslotsCount();
+		int words = problem.getMaskWords();
+		scheduledLectures = new int[problem.getCourseCount()];
+		presence = new long[timeslotCount * words];
+		takenLectures = new int[timeslotCount];
+		
+		int[] row = s.row;
+		for (int t=0; t<timeslotCount; t++) {
+			solution.copyRow(t, row);
+			for (int course : row) {
+				if (course > 0) {
+					scheduledLectures[course-1]++;
+					presence[t * words + ((course-1) >>> 6)] |= 1L << (course-1);
+				}
+			}
+			takenLectures[t] = evaluator.countTakenLectures(row);
+		}
+		fitnessValue = fitness();
+	}
+	
+	/**
+	 * Repairs an offspring of crossover, canceling the excess lectures. The time
+	 * slots come whole from valid parents, so there are no infeasible lectures,
+	 * and the index is assembled from the ones of the parents.
+	 * 
+	 * @param x parent 1
+	 * @param y parent 2
+	 * @param crossoverTimeslot first time slot taken from parent 2
+	 */
+	private void repair(Chromosome x, Chromosome y, int crossoverTimeslot) {
+		int timeslotCount = problem.getTimeslotsCount();
+		int words = problem.getMaskWords();
+		int cut = crossoverTimeslot * words;
+		System.arraycopy(x.presence, 0, presence, 0, cut);
+		System.arraycopy(y.presence, cut, presence, cut, presence.length - cut);
+		System.arraycopy(x.takenLectures, 0, takenLectures, 0, crossoverTimeslot);
+		System.arraycopy(y.takenLectures, crossoverTimeslot, takenLectures, crossoverTimeslot,
+				timeslotCount - crossoverTimeslot);
+		
+		// lectures per course, starting from the parent giving more time slots
+		if (crossoverTimeslot < timeslotCount / 2) {
+			System.arraycopy(y.scheduledLectures, 0, scheduledLectures, 0, scheduledLectures.length);
+			count(x.presence, 0, crossoverTimeslot, 1);
+			count(y.presence, 0, crossoverTimeslot, -1);
+		} else {
+			System.arraycopy(x.scheduledLectures, 0, scheduledLectures, 0, scheduledLectures.length);
+			count(x.presence, crossoverTimeslot, timeslotCount, -1);
+			count(y.presence, crossoverTimeslot, timeslotCount, 1);
+		}
+		fitnessValue = fitness();
+		
+		// cancel excess lectures, the first ones are kept
+		Scratch s = scratch.get().ensure(problem);
+		int[] desiredLecturesCount = problem.getLecturesPerCourse();
+		for (int c=0; c<scheduledLectures.length; c++)
+			if (scheduledLectures[c] > desiredLecturesCount[c])
+				cancelLast(c + 1, scheduledLectures[c] - desiredLecturesCount[c], s);
+		refresh(s);
+	}
+	
+	/**
+	 * Adds to the lectures per course the ones scheduled in some time slots.
+	 * 
+	 * @param presence courses scheduled in each time slot
+	 * @param from first time slot
+	 * @param to last time slot (excluded)
+	 * @param sign 1 to add, -1 to subtract
+	 */
+	private void count(long[] presence, int from, int to, int sign) {
+		int words = problem.getMaskWords();
+		for (int i=from*words; i<to*words; i++)
+			for (long w=presence[i]; w!=0; w&=w-1)
+				scheduledLectures[(i % words) * 64 + Long.numberOfTrailingZeros(w)] += sign;
+	}
+	
+	/**
+	 * Cancels the last lectures of a course, in order of time slot.
+	 */
+	private void cancelLast(int course, int count, Scratch s) {
+		for (int t=problem.getTimeslotsCount()-1; t>=0 && count>0; t--) {
+			if (isScheduled(t, course)) {
+				cancel(t, classroomOf(t, course), s);
+				count--;
+			}
+		}
+	}
+	
+	private boolean isScheduled(int t, int course) {
+		return (presence[t * problem.getMaskWords() + ((course-1) >>> 6)] & 1L << (course-1)) != 0;
+	}
+	
+	private int classroomOf(int t, int course) {
+		for (int cl=0; cl<problem.getClassroomCount(); cl++)
+			if (solution.get(t, cl) == course)
+				return cl;
+		throw new IllegalStateException("Course " + course + " not in time slot " + t);
+	}
+	
+	/**
+	 * Schedules a lecture in an empty cell, updating genes, index and fitness
+	 * value. The lectures taken in the time slot are updated by refresh().
+	 */
+	private void schedule(int t, int cl, int course, Scratch s) {
+		solution.set(t, cl, course);
+		setGene(t * problem.getClassroomCount() + cl, course);
+		presence[t * problem.getMaskWords() + ((course-1) >>> 6)] |= 1L << (course-1);
+		changeScheduledLectures(course, 1);
+		s.markDirty(t);
+	}
+	
+	/**
+	 * Cancels a lecture, updating genes, index and fitness value. The lectures
+	 * taken in the time slot are updated by refresh().
+	 */
+	private void cancel(int t, int cl, Scratch s) {
+		int course = solution.get(t, cl);
+		solution.set(t, cl, 0);
+		setGene(t * problem.getClassroomCount() + cl, 0);
+		presence[t * problem.getMaskWords() + ((course-1) >>> 6)] &= ~(1L << (course-1));
+		changeScheduledLectures(course, -1);
+		s.markDirty(t);
+	}
+	
+	private void setGene(int cell, int course) {
+		int shift = (cell % coursesPerWord) * genesPerCourse;
+		long mask = ((1L << genesPerCourse) - 1) << shift;
+		genes[cell / coursesPerWord] = genes[cell / coursesPerWord] & ~mask | (long) course << shift;
+	}
+	
+	private void changeScheduledLectures(int course, int delta) {
+		int desired = problem.getLecturesPerCourse()[course-1];
+		int before = scheduledLectures[course-1];
+		scheduledLectures[course-1] += delta;
+		fitnessValue += Math.abs(desired - before) - Math.abs(desired - scheduledLectures[course-1]);
+	}
+	
+	/**
+	 * Updates the lectures taken in the time slots changed since the last call,
+	 * and the fitness value.
+	 */
+	private void refresh(Scratch s) {
+		for (int i=0; i<s.dirtyCount; i++) {
+			int t = s.dirtyTimeslots[i];
+			s.dirty[t] = false;
+			solution.copyRow(t, s.row);
+			int taken = evaluator.countTakenLectures(s.row);
+			fitnessValue += taken - takenLectures[t];
+			takenLectures[t] = taken;
+		}
+		s.dirtyCount = 0;
 	}
 
 	/**
@@ -186,35 +565,22 @@ public class Chromosome {
 	 * 
 	 * @return the sequence of genes
 	 */
-	private String toGenes() {
+	long[] toGenes() {
         int timeslotCount = problem.getTimeslotsCount();
         int classroomCount = problem.getClassroomCount();
-        int genesPerCourse = genesPerCourse();
-        int[][] schedule = solution.getSchedule();
-        StringBuffer sb = new StringBuffer();
+        int cellCount = timeslotCount * classroomCount;
+        Solution schedule = solution;
+        long[] genes = new long[(cellCount + coursesPerWord - 1) / coursesPerWord];
         
-        // from end to start because of the conversion to binary (add in head)
-		for (int t=timeslotCount-1; t>=0; t--) {
-			for (int cl=classroomCount-1; cl>=0; cl--) {
-				int course = schedule[t][cl];
-				int nGenes=0;
-				
-				// translate to binary and add to string
-				while (course != 0) {
-					sb.insert(0, course % 2 == 0 ? '0' : '1');
-					course /= 2;
-					nGenes++;
-				}
-				
-				// insert remaining 0s
-				while (nGenes < genesPerCourse) {
-					sb.insert(0, '0');
-					nGenes++;
-				}
+        int cell = 0;
+		for (int t=0; t<timeslotCount; t++) {
+			for (int cl=0; cl<classroomCount; cl++) {
+				genes[cell / coursesPerWord] |= (long) schedule.get(t, cl) << ((cell % coursesPerWord) * genesPerCourse);
+				cell++;
 			}
 		}
 		
-		return sb.toString();
+		return genes;
 	}
 	
 	/**
@@ -222,26 +588,38 @@ public class Chromosome {
 	 * 
 	 * @return the solution
 	 */
-	private Solution toSolution() {
+	Solution toSolution() {
 		int timeslotCount = problem.getTimeslotsCount();
         int classroomCount = problem.getClassroomCount();
-        int genesPerCourse = genesPerCourse();
-        int[][] schedule = new int[timeslotCount][classroomCount];
+        long courseMask = (1L << genesPerCourse) - 1;
+        Solution schedule = new Solution(timeslotCount, classroomCount, problem.getCourseCount());
         
+        int cell = 0;
         for (int t=0; t<timeslotCount; t++) {
         	for (int cl=0; cl<classroomCount; cl++) {
-        		int course = 0;
-        		int baseIndex = (t * classroomCount + cl) * genesPerCourse;
-        		
-        		// translate binary string to integer
-        		for (int g=0; g<genesPerCourse; g++)
-        			course = course*2 + (genes.charAt(baseIndex + g) == '0' ? 0 : 1);
-        		
-        		schedule[t][cl] = course;
+        		long word = genes[cell / coursesPerWord];
+        		schedule.set(t, cl, (int) ((word >>> ((cell % coursesPerWord) * genesPerCourse)) & courseMask));
+        		cell++;
         	}
         }
         
-        return new Solution(schedule);
+        return schedule;
+	}
+	
+	/**
+	 * Computes the fraction of genes differing from another chromosome of the
+	 * same problem.
+	 * 
+	 * @param other other chromosome
+	 * @return Hamming distance divided by the number of genes
+	 */
+	double distance(Chromosome other) {
+		// unused bits are always 0, so they never differ
+		int n = problem.getTimeslotsCount() * problem.getClassroomCount() * genesPerCourse;
+		int different = 0;
+		for (int i=0; i<genes.length; i++)
+			different += Long.bitCount(genes[i] ^ other.genes[i]);
+		return n > 0 ? different / (double) n : 0;
 	}
 	
 	/**
@@ -267,8 +645,22 @@ public class Chromosome {
 	 * Getters and setters
 	 */
 	
+	/**
+	 * Gets the genes as a string of '0' and '1', each course ID written from the
+	 * most significant bit.
+	 * 
+	 * @return the sequence of genes
+	 */
 	public String getGenes() {
-		return genes;
+		int cellCount = problem.getTimeslotsCount() * problem.getClassroomCount();
+		StringBuilder sb = new StringBuilder(cellCount * genesPerCourse);
+		for (int cell=0; cell<cellCount; cell++) {
+			long word = genes[cell / coursesPerWord];
+			int shift = (cell % coursesPerWord) * genesPerCourse;
+			for (int g=genesPerCourse-1; g>=0; g--)
+				sb.append((word >>> (shift + g) & 1) == 0 ? '0' : '1');
+		}
+		return sb.toString();
 	}
 	
 	public int getFitnessValue() {
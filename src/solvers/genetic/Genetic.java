@@ -1,100 +1,314 @@
 package solvers.genetic;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import generator.Evaluator;
 import generator.Problem;
 import generator.Solution;
 import solvers.Solver;
+import solvers.SolverListener;
+import solvers.SolverProgress;
 
 /**
  * Implementation of a genetic algorithm (GA)
  */
 public class Genetic implements Solver {
     private final int populationSize;
-    private List<Chromosome> population;
+    private Chromosome[] population;
+    // buffers of the next population, swapped with the current one at each generation
+    private Chromosome[] next;
     private double mutationProbability;
     private final int enoughFitness;
     private final long maxTime;
-    private static final Random random = new Random();
+    private final SplittableRandom random;
+    private final long seed;
+    private volatile ForkJoinPool pool;
+    private SolverListener listener;
+    private Selection selection = new RouletteSelection();
+    private Chromosome bestChromosome;
+    private long generations;
+    private int elitism;
+    
+    // buffers of ranking()
+    private final long[] rankingKeys;
+    private final int[] ranking;
+    
+    // maximum number of offspring produced by one task
+    private static final int REPRODUCTION_THRESHOLD = 4;
     
 	public Genetic(Problem problem, Evaluator evaluator, int populationSize, double mutationProbability,
 			int enoughFitness, long maxTime) {
+		this(problem, evaluator, populationSize, mutationProbability, enoughFitness, maxTime, new SplittableRandom());
+	}
+	
+	// same as above, but the run is determined by the seed
+	public Genetic(Problem problem, Evaluator evaluator, int populationSize, double mutationProbability,
+			int enoughFitness, long maxTime, long seed) {
+		this(problem, evaluator, populationSize, mutationProbability, enoughFitness, maxTime,
+				new SplittableRandom(seed));
+	}
+	
+	private Genetic(Problem problem, Evaluator evaluator, int populationSize, double mutationProbability,
+			int enoughFitness, long maxTime, SplittableRandom random) {
+        this.random = random;
+        this.seed = random.nextLong();
         this.populationSize = populationSize;
         this.mutationProbability = mutationProbability;
         this.enoughFitness = enoughFitness;
         this.maxTime = maxTime;
         
         // init population with random states (complete representation, all slots filled)
-        population = new LinkedList<>();
-        for (int c=0; c<populationSize; c++)
-			population.add(new Chromosome(problem, evaluator));
+        population = new Chromosome[populationSize];
+        next = new Chromosome[populationSize];
+        for (int c=0; c<populationSize; c++) {
+			population[c] = new Chromosome(evaluator, random);
+			next[c] = new Chromosome(population[c]);
+        }
+        rankingKeys = new long[populationSize];
+        ranking = new int[populationSize];
     }
 
+	/**
+	 * Produces part of the next population, splitting it in halves until it is
+	 * small enough.
+	 */
+	private class Reproduction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final long generation;
+		private final int from;
+		private final int to;
+		
+		Reproduction(long generation, int from, int to) {
+			this.generation = generation;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= REPRODUCTION_THRESHOLD) {
+				for (int i=from; i<to; i++)
+					produce(generation, i);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Reproduction(generation, from, middle), new Reproduction(generation, middle, to));
+			}
+		}
+	}
+	
 	public Solution solve() {
-		Chromosome bestChromosome = null;
-		double maxFitnessValue;
 		long startTime = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
 		long elapsedTime;
+		double maxFitnessValue;
+		double bestFitnessValue = Double.NEGATIVE_INFINITY;
 		
     	do {
-    		// evolution
-    		List<Chromosome> newPopulation = new LinkedList<>();
-	    	for (int i=0; i<populationSize; i++) {
-	    		Chromosome offspring = reproduce(select(), select());
-	    		
-				/*
-				 * Mutation should happen with a certain probability. In order to obtain this,
-				 * we extract a random value with uniform distribution (0,1). Recall that for a
-				 * random variable X~U(0,1), F(x) = P(X<=x) = x.
-				 */
-	    		if (random.nextDouble() <= mutationProbability)
-	    			offspring.mutate();
-	    		newPopulation.add(offspring);
-	    	}
-	    	
-	    	// update population
-	    	population = newPopulation;
-	    	
-			// get best chromosome
-			double aux = population.stream().mapToDouble(Chromosome::getFitnessValue).max().getAsDouble();
-	    	bestChromosome = population.stream().filter(i -> i.getFitnessValue() == aux).findFirst().get();
-	    	maxFitnessValue = aux;	// aux is used because closures require effective final variables
+    		evolve();
+	    	maxFitnessValue = bestChromosome.getFitnessValue();
+	    	bestFitnessValue = Math.max(bestFitnessValue, maxFitnessValue);
+	    	if (listener != null)
+	    		listener.onProgress(progress(startNanos, bestFitnessValue));
 	    	
 	    	// terminate when time runs out or when a good-enough chromosome has been found
 	    	elapsedTime = System.currentTimeMillis() - startTime;
-//	    	System.err.println("Elapsed time: " + elapsedTime);
-//	    	System.err.println("Best fitness value: " + maxFitnessValue);
 		} while (elapsedTime < maxTime && maxFitnessValue < enoughFitness);
     	
-	    return bestChromosome.getSolution();
+    	if (listener != null)
+    		listener.onFinish(progress(startNanos, bestFitnessValue));
+	    return new Solution(bestChromosome.getSolution());
     }
-
-	private Chromosome select() {
-		/*
-		 * Fitness proportionate selection (roulette-wheel selection):
-		 * 1. sum all fitness values -> sum
-		 * 2. generate random value in (0, sum) -> rand
-		 * 3. go through the population summing the fitness values -> partialSum
-		 * 4. stop when partialSum > rand is greater than r
-		 */
-		int sum = population.stream().mapToInt(Chromosome::getFitnessValue).sum();
-		int rand = random.nextInt(sum);
-		int partialSum = 0;
+	
+	/**
+	 * Replaces the population with the next generation, written in the buffers
+	 * of the previous one. The chromosomes of the current population are
+	 * overwritten by the next call.
+	 */
+	void evolve() {
+		selection.prepare(population);
+		
+		// elitism, the best chromosomes are copied as they are
+		if (elitism > 0) {
+			int[] ranking = ranking();
+			for (int i=0; i<elitism; i++)
+				next[i].copyFrom(population[ranking[populationSize - 1 - i]]);
+		}
+		
+		// evolution, in parallel if there is a pool
+		ForkJoinPool pool = this.pool;
+		if (pool == null) {
+			for (int i=elitism; i<populationSize; i++)
+				produce(generations, i);
+		} else {
+			pool.invoke(new Reproduction(generations, elitism, populationSize));
+		}
+		
+		// update population
+		Chromosome[] previous = population;
+		population = next;
+		next = previous;
+		generations++;
+		updateBestChromosome();
+	}
+	
+	// the first one in case of ties
+	private void updateBestChromosome() {
+		bestChromosome = population[0];
+		for (Chromosome c : population)
+			if (c.getFitnessValue() > bestChromosome.getFitnessValue())
+				bestChromosome = c;
+	}
+	
+	/**
+	 * Sorts the population by increasing fitness value, packing fitness value and
+	 * index in a long to sort primitives.
+	 * 
+	 * @return indexes of the chromosomes, valid until the next call
+	 */
+	private int[] ranking() {
+		for (int i=0; i<populationSize; i++)
+			rankingKeys[i] = (long) population[i].getFitnessValue() << 32 | i;
+		Arrays.sort(rankingKeys);
+		for (int i=0; i<populationSize; i++)
+			ranking[i] = (int) rankingKeys[i];
+		return ranking;
+	}
+	
+	/**
+	 * Gets the best chromosomes of the population, e.g. to send them to another
+	 * population.
+	 * 
+	 * @param count number of chromosomes, at most the population size
+	 * @return copies of the chromosomes, from the best one
+	 */
+	Chromosome[] best(int count) {
+		int[] ranking = ranking();
+		Chromosome[] best = new Chromosome[count];
+		for (int i=0; i<count; i++)
+			best[i] = new Chromosome(population[ranking[populationSize - 1 - i]]);
+		return best;
+	}
+	
+	/**
+	 * Replaces the worst chromosomes of the population with chromosomes coming
+	 * from another population. If there are more immigrants than chromosomes,
+	 * the last ones are discarded.
+	 * 
+	 * @param immigrants chromosomes of the same problem, copied
+	 */
+	void immigrate(Chromosome[] immigrants) {
+		int[] ranking = ranking();
+		for (int i=0; i<immigrants.length && i<populationSize; i++)
+			population[ranking[i]].copyFrom(immigrants[i]);
+		updateBestChromosome();
+	}
+	
+	Chromosome[] getPopulation() {
+		return population;
+	}
+	
+	Chromosome getBestChromosome() {
+		return bestChromosome;
+	}
+	
+	long getGenerations() {
+		return generations;
+	}
+	
+	public void setListener(SolverListener listener) {
+		this.listener = listener;
+	}
+	
+	/**
+	 * Describes the current population, computed only when there is a listener.
+	 */
+	private SolverProgress progress(long startNanos, double bestFitnessValue) {
+		double mean = 0;
+		double diversity = 0;
 		for (Chromosome c : population) {
-			partialSum += c.getFitnessValue();
-			if (partialSum > rand)
-				return c;
+			mean += c.getFitnessValue();
+			diversity += c.distance(bestChromosome);
 		}
+		return new SolverProgress("Genetic", generations, System.nanoTime() - startNanos,
+				bestChromosome.getFitnessValue(), bestFitnessValue, Double.NaN, mean / population.length,
+				diversity / population.length);
+	}
+
+	/**
+	 * Produces one offspring of the next population. It draws from its own
+	 * generator, determined by the seed, the generation and its index, so that
+	 * the population does not depend on which thread produces it.
+	 * 
+	 * @param generation generation of the population being produced
+	 * @param index index of the offspring in the next population
+	 */
+	private void produce(long generation, int index) {
+		SplittableRandom random = new SplittableRandom(offspringSeed(generation, index));
+		Chromosome offspring = next[index];
+		offspring.recombine(selection.select(population, random), selection.select(population, random), random);
 		
-		// should not arrive here
-		throw new RuntimeException("Wrong selection algorithm");
+		/*
+		 * Mutation should happen with a certain probability. In order to obtain this,
+		 * we extract a random value with uniform distribution (0,1). Recall that for a
+		 * random variable X~U(0,1), F(x) = P(X<=x) = x.
+		 */
+		if (random.nextDouble() <= mutationProbability)
+			offspring.mutate(random);
+	}
+	
+	// SplitMix64 of the seed, the generation and the index
+	private long offspringSeed(long generation, int index) {
+		long z = seed + (generation * populationSize + index + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	public int getElitism() {
+		return elitism;
+	}
+	
+	/**
+	 * Sets the number of best chromosomes copied unchanged to the next
+	 * generation (0 by default).
+	 * 
+	 * @param elitism number of chromosomes, less than the population size
+	 */
+	public void setElitism(int elitism) {
+		if (elitism < 0 || elitism >= populationSize)
+			throw new IllegalArgumentException("Elitism must be in [0, population size)");
+		this.elitism = elitism;
+	}
+	
+	public Selection getSelection() {
+		return selection;
+	}
+	
+	/**
+	 * Sets the strategy selecting the parents (roulette-wheel selection by
+	 * default).
+	 * 
+	 * @param selection selection strategy
+	 */
+	public void setSelection(Selection selection) {
+		this.selection = selection;
+	}
+	
+	public ForkJoinPool getPool() {
+		return pool;
 	}
 	
-	private Chromosome reproduce(Chromosome x, Chromosome y) {
-		return new Chromosome(x, y);
+	/**
+	 * Sets the pool producing the offspring in parallel, null (default) to
+	 * produce them in the calling thread. The result is the same.
+	 * 
+	 * @param pool pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
 	}
 	
 }
@@ -0,0 +1,317 @@
+package solvers.genetic;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import generator.Evaluator;
+import generator.Problem;
+import generator.Solution;
+import solvers.Solver;
+import solvers.SolverListener;
+import solvers.SolverProgress;
+
+/**
+ * Island model of GA: several populations (islands) evolve independently and
+ * in parallel, and every few generations each of them sends its best
+ * chromosomes to its neighbours, where they replace the worst ones. The
+ * islands keep the diversity a single large population loses when it
+ * converges, while migration spreads the good chromosomes.
+ *
+ * The islands run epochs of migrationInterval generations. At the end of an
+ * epoch, the migrants are posted to lock-free queues and received by the
+ * neighbours at the start of the next one. The stop conditions (time and
+ * fitness) are checked only between epochs, so every epoch runs all its
+ * generations and the run is determined by the seed and does not depend on the
+ * pool or on the timing of the threads.
+ */
+public class IslandGenetic implements Solver {
+
+	/**
+	 * Islands receiving the migrants of an island.
+	 */
+	public enum Topology {
+		// the next island, the last one sends to the first one
+		RING,
+		// all the other islands
+		COMPLETE
+	}
+
+	private final Genetic[] islands;
+	private final int populationSize;
+	private final int enoughFitness;
+	private final long maxTime;
+	private Topology topology = Topology.RING;
+	private int migrationInterval = 10;
+	private int migrantCount;
+	private volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+	private SolverListener listener;
+
+	/**
+	 * Chromosomes sent by an island.
+	 */
+	private static final class Migration {
+		final int source;
+		final long epoch;
+		final Chromosome[] migrants;
+
+		Migration(int source, long epoch, Chromosome[] migrants) {
+			this.source = source;
+			this.epoch = epoch;
+			this.migrants = migrants;
+		}
+	}
+
+	/**
+	 * One island, running an epoch per call.
+	 */
+	private final class Island implements Callable<Void> {
+		final int index;
+		final Genetic genetic;
+		final ConcurrentLinkedQueue<Migration> inbox = new ConcurrentLinkedQueue<>();
+		// migrations taken from the inbox but sent in the current epoch
+		final List<Migration> pending = new ArrayList<>();
+		final List<Migration> received = new ArrayList<>();
+		Island[] neighbours;
+		long epoch;
+		Chromosome bestChromosome;
+
+		Island(int index, Genetic genetic) {
+			this.index = index;
+			this.genetic = genetic;
+		}
+
+		@Override
+		public Void call() {
+			/*
+			 * Receive the migrations of the previous epochs, in order of source, so that
+			 * the population does not depend on the order in which the islands run.
+			 * Faster neighbours may have already sent the ones of this epoch.
+			 */
+			Migration m;
+			while ((m = inbox.poll()) != null)
+				pending.add(m);
+			for (int i=pending.size()-1; i>=0; i--)
+				if (pending.get(i).epoch < epoch)
+					received.add(pending.remove(i));
+			if (!received.isEmpty()) {
+				received.sort(Comparator.comparingInt(r -> r.source));
+				List<Chromosome> immigrants = new ArrayList<>();
+				for (Migration r : received)
+					for (Chromosome c : r.migrants)
+						immigrants.add(c);
+				genetic.immigrate(immigrants.toArray(new Chromosome[0]));
+				received.clear();
+			}
+
+			// the whole epoch, the stop conditions are checked by solve() in between
+			for (int i=0; i<migrationInterval; i++) {
+				genetic.evolve();
+				// copied, the population is recycled at the next generation
+				Chromosome c = genetic.getBestChromosome();
+				if (bestChromosome == null)
+					bestChromosome = new Chromosome(c);
+				else if (c.getFitnessValue() > bestChromosome.getFitnessValue())
+					bestChromosome.copyFrom(c);
+			}
+
+			// send
+			if (migrantCount > 0) {
+				Migration migration = new Migration(index, epoch, genetic.best(migrantCount));
+				for (Island neighbour : neighbours)
+					neighbour.inbox.offer(migration);
+			}
+			epoch++;
+			return null;
+		}
+	}
+
+	public IslandGenetic(Problem problem, Evaluator evaluator, int populationSize, double mutationProbability,
+			int enoughFitness, long maxTime, long seed) {
+		this(problem, evaluator, Runtime.getRuntime().availableProcessors(), populationSize, mutationProbability,
+				enoughFitness, maxTime, seed);
+	}
+
+	/**
+	 * @param problem problem to solve
+	 * @param evaluator evaluator of the problem
+	 * @param islandCount number of islands, at least 1
+	 * @param populationSize population size of each island
+	 * @param mutationProbability mutation probability
+	 * @param enoughFitness fitness value that stops the algorithm, at the end of
+	 *                      the epoch in which it is reached
+	 * @param maxTime maximum time in ms, checked at the end of each epoch
+	 * @param seed seed of the islands
+	 */
+	public IslandGenetic(Problem problem, Evaluator evaluator, int islandCount, int populationSize,
+			double mutationProbability, int enoughFitness, long maxTime, long seed) {
+		if (islandCount < 1)
+			throw new IllegalArgumentException("At least one island is needed");
+		this.populationSize = populationSize;
+		this.enoughFitness = enoughFitness;
+		this.maxTime = maxTime;
+		this.migrantCount = Math.min(2, populationSize);
+
+		SplittableRandom random = new SplittableRandom(seed);
+		this.islands = new Genetic[islandCount];
+		for (int i=0; i<islandCount; i++)
+			islands[i] = new Genetic(problem, evaluator, populationSize, mutationProbability, enoughFitness, maxTime,
+					random.nextLong());
+	}
+
+	public Solution solve() {
+		long startTime = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
+
+		Island[] ring = new Island[islands.length];
+		List<Callable<Void>> tasks = new ArrayList<>(islands.length);
+		for (int i=0; i<islands.length; i++) {
+			ring[i] = new Island(i, islands[i]);
+			tasks.add(ring[i]);
+		}
+		for (int i=0; i<ring.length; i++)
+			ring[i].neighbours = neighbours(ring, i);
+
+		// one epoch of all the islands per round
+		Chromosome best = null;
+		while ((best == null || best.getFitnessValue() < enoughFitness)
+				&& System.currentTimeMillis() - startTime < maxTime) {
+			for (Future<Void> f : pool.invokeAll(tasks)) {
+				try {
+					f.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return new Solution(best(ring).getSolution());
+				} catch (ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				}
+			}
+			best = best(ring);
+			if (listener != null)
+				listener.onProgress(progress(ring, startNanos));
+		}
+
+		if (listener != null)
+			listener.onFinish(progress(ring, startNanos));
+		return new Solution(best(ring).getSolution());
+	}
+
+	private Island[] neighbours(Island[] ring, int i) {
+		if (ring.length == 1)
+			return new Island[0];
+		switch (topology) {
+		case RING:
+			return new Island[] { ring[(i + 1) % ring.length] };
+		case COMPLETE:
+		default:
+			Island[] neighbours = new Island[ring.length - 1];
+			for (int j=1; j<ring.length; j++)
+				neighbours[j-1] = ring[(i + j) % ring.length];
+			return neighbours;
+		}
+	}
+
+	// best chromosome found by any island, the first one in case of ties
+	private static Chromosome best(Island[] ring) {
+		Chromosome best = null;
+		for (Island island : ring)
+			if (island.bestChromosome != null
+					&& (best == null || island.bestChromosome.getFitnessValue() > best.getFitnessValue()))
+				best = island.bestChromosome;
+		return best != null ? best : ring[0].genetic.getBestChromosome();
+	}
+
+	/**
+	 * Describes the current populations of all the islands, computed only when
+	 * there is a listener.
+	 */
+	private SolverProgress progress(Island[] ring, long startNanos) {
+		Chromosome best = best(ring);
+		long generations = 0;
+		int current = Integer.MIN_VALUE;
+		double mean = 0;
+		double diversity = 0;
+		int size = 0;
+		for (Island island : ring) {
+			generations += island.genetic.getGenerations();
+			current = Math.max(current, island.genetic.getBestChromosome().getFitnessValue());
+			for (Chromosome c : island.genetic.getPopulation()) {
+				mean += c.getFitnessValue();
+				diversity += c.distance(best);
+				size++;
+			}
+		}
+		return new SolverProgress("IslandGenetic", generations, System.nanoTime() - startNanos, current,
+				best.getFitnessValue(), Double.NaN, mean / size, diversity / size);
+	}
+
+	public void setListener(SolverListener listener) {
+		this.listener = listener;
+	}
+
+	public Topology getTopology() {
+		return topology;
+	}
+
+	/**
+	 * Sets the islands receiving the migrants (ring by default).
+	 *
+	 * @param topology topology
+	 */
+	public void setTopology(Topology topology) {
+		this.topology = topology;
+	}
+
+	public int getMigrationInterval() {
+		return migrationInterval;
+	}
+
+	/**
+	 * Sets the generations between two migrations (10 by default).
+	 *
+	 * @param migrationInterval number of generations, at least 1
+	 */
+	public void setMigrationInterval(int migrationInterval) {
+		if (migrationInterval < 1)
+			throw new IllegalArgumentException("The migration interval must be at least 1");
+		this.migrationInterval = migrationInterval;
+	}
+
+	public int getMigrantCount() {
+		return migrantCount;
+	}
+
+	/**
+	 * Sets the number of best chromosomes an island sends to each neighbour (2
+	 * by default, or the population size if smaller), 0 for no migration.
+	 *
+	 * @param migrantCount number of chromosomes, at most the population size
+	 */
+	public void setMigrantCount(int migrantCount) {
+		if (migrantCount < 0)
+			throw new IllegalArgumentException("The number of migrants cannot be negative");
+		if (migrantCount > populationSize)
+			throw new IllegalArgumentException("The number of migrants cannot exceed the population size");
+		this.migrantCount = migrantCount;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the pool running the islands (the common pool by default).
+	 *
+	 * @param pool pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+}
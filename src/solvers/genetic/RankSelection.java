@@ -0,0 +1,44 @@
+package solvers.genetic;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Linear rank selection: the chromosomes are sorted by fitness and the i-th
+ * worst one is selected with probability proportional to i (from 1). Unlike
+ * roulette selection, it does not depend on the scale of the fitness values.
+ */
+public class RankSelection implements Selection {
+	// population indexes sorted by increasing fitness
+	private int[] ranking = new int[0];
+	// prefixSums[i] = 1 + 2 + ... + (i+1)
+	private long[] prefixSums = new long[0];
+	// sort buffer, fitness and index packed in a long to sort primitives
+	private long[] keys = new long[0];
+	
+	@Override
+	public void prepare(Chromosome[] population) {
+		int n = population.length;
+		if (ranking.length != n) {
+			ranking = new int[n];
+			prefixSums = new long[n];
+			keys = new long[n];
+			for (int i=0; i<n; i++)
+				prefixSums[i] = (long) (i + 1) * (i + 2) / 2;
+		}
+		
+		// sort by fitness
+		for (int i=0; i<n; i++)
+			keys[i] = (long) population[i].getFitnessValue() << 32 | i;
+		Arrays.sort(keys);
+		for (int i=0; i<n; i++)
+			ranking[i] = (int) keys[i];
+	}
+	
+	@Override
+	public Chromosome select(Chromosome[] population, RandomGenerator random) {
+		long sum = prefixSums[prefixSums.length - 1];
+		return population[ranking[RouletteSelection.search(prefixSums, random.nextLong(sum))]];
+	}
+	
+}
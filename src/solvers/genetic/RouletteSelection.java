@@ -0,0 +1,56 @@
+package solvers.genetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Fitness proportionate selection (roulette-wheel selection). The prefix sums
+ * of the fitness values are computed once per generation, then each selection
+ * is a binary search. Negative fitness values count as 0 and, if all of them
+ * are 0, the selection is uniform.
+ */
+public class RouletteSelection implements Selection {
+	// prefixSums[i] = sum of the fitness values of the chromosomes 0..i
+	private long[] prefixSums = new long[0];
+	
+	@Override
+	public void prepare(Chromosome[] population) {
+		if (prefixSums.length != population.length)
+			prefixSums = new long[population.length];
+		long sum = 0;
+		for (int i=0; i<population.length; i++) {
+			sum += Math.max(0, population[i].getFitnessValue());
+			prefixSums[i] = sum;
+		}
+	}
+	
+	@Override
+	public Chromosome select(Chromosome[] population, RandomGenerator random) {
+		long sum = prefixSums[prefixSums.length - 1];
+		if (sum == 0)
+			return population[random.nextInt(population.length)];
+		
+		// first chromosome whose prefix sum is greater than a random value in [0, sum)
+		return population[search(prefixSums, random.nextLong(sum))];
+	}
+	
+	/**
+	 * Finds the first element greater than a value in a non-decreasing array.
+	 * 
+	 * @param prefixSums non-decreasing array
+	 * @param value value, less than the last element
+	 * @return index
+	 */
+	static int search(long[] prefixSums, long value) {
+		int low = 0;
+		int high = prefixSums.length - 1;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (prefixSums[middle] > value)
+				high = middle;
+			else
+				low = middle + 1;
+		}
+		return low;
+	}
+	
+}
@@ -0,0 +1,31 @@
+package solvers.genetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Strategy to select the parents of the offspring in GA.
+ * 
+ * {@link #prepare(Chromosome[])} is called once per generation, then
+ * {@link #select(Chromosome[], RandomGenerator)} can be called from several
+ * threads at the same time, so it must not change the state of the strategy.
+ * An instance must not be shared by solvers running at the same time.
+ */
+public interface Selection {
+	
+	/**
+	 * Prepares the selection from a new population.
+	 * 
+	 * @param population population, not changed until the next call
+	 */
+	void prepare(Chromosome[] population);
+	
+	/**
+	 * Selects a chromosome of the population given to the last prepare().
+	 * 
+	 * @param population population
+	 * @param random source of randomness of the calling thread
+	 * @return selected chromosome
+	 */
+	Chromosome select(Chromosome[] population, RandomGenerator random);
+	
+}
@@ -0,0 +1,38 @@
+package solvers.genetic;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Tournament selection: the best of k chromosomes picked uniformly at random
+ * (with replacement). The selection pressure grows with k, and it works with
+ * any fitness values.
+ */
+public class TournamentSelection implements Selection {
+	private final int size;
+	
+	/**
+	 * @param size number of chromosomes of a tournament (k), at least 1
+	 */
+	public TournamentSelection(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("A tournament needs at least one chromosome");
+		this.size = size;
+	}
+	
+	@Override
+	public void prepare(Chromosome[] population) {
+		// nothing to do
+	}
+	
+	@Override
+	public Chromosome select(Chromosome[] population, RandomGenerator random) {
+		Chromosome best = population[random.nextInt(population.length)];
+		for (int i=1; i<size; i++) {
+			Chromosome c = population[random.nextInt(population.length)];
+			if (c.getFitnessValue() > best.getFitnessValue())
+				best = c;
+		}
+		return best;
+	}
+	
+}
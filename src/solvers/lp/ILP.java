@@ -1,102 +1,369 @@
 package solvers.lp;
 
+import generator.CompiledProblem;
+import generator.Evaluator;
 import generator.Problem;
 import generator.Solution;
-import scpsolver.problems.LPSolution;
-import scpsolver.problems.LPWizard;
-import scpsolver.problems.LPWizardConstraint;
 import solvers.Solver;
-
-import java.util.List;
-import java.util.Map;
+import solvers.SolverListener;
+import solvers.SolverProgress;
 
 public class ILP implements Solver {
-    private final Problem p;
+
+    /**
+     * Constraints removing solutions that are equivalent up to a permutation of
+     * interchangeable time slots. They keep at least one optimal solution.
+     */
+    public enum SymmetryBreaking {
+        // the plain formulation
+        NONE,
+        // the lectures of the course with the most lectures come first
+        FIX_LARGEST_COURSE,
+        // the time slots are sorted by decreasing number of lectures
+        ORDER_TIMESLOTS,
+        // both, the time slots with the largest course come first and then are sorted
+        ALL
+    }
+
+    private final CompiledProblem p;
+    private SymmetryBreaking symmetryBreaking = SymmetryBreaking.NONE;
+    private long maxTime;
+    private double gap;
+    private Solution start;
+    private SolverListener listener;
 
     public ILP(Problem p) {
+        this(p.compile());
+    }
+
+    public ILP(CompiledProblem p) {
         this.p = p;
     }
 
+    /**
+     * Solves the problem, stopping at the time limit or at the gap with the best
+     * integer solution found so far.
+     *
+     * @return schedule, or null if the solver found no integer solution (e.g.
+     *         the time limit was reached first) and no start was set
+     */
     public Solution solve() {
-        LPWizard lpw = new LPWizard();
+        long startTime = System.nanoTime();
+        final int timeSlots = p.getTimeslotsCount();
+        final int classRoomCount = p.getClassroomCount();
+        final int courseCount = p.getCourseCount();
 
-        final Map<List<Integer>, Integer> map = p.getStudentGroups(); //Get groups
+        //The start is already optimal if it has no conflicts
+        final Evaluator evaluator = new Evaluator(p);
+        if (start != null && objective(start) == 0)
+            return finish(new Solution(start), evaluator, startTime);
+
+        //Solver, stopped at the time limit or at the gap with the best integer solution found
+        final LinearModel model = buildModel();
+        model.setTimeLimit(maxTime / 1000.0);
+        model.setGap(gap);
+        final double[] solution = model.solve();
+
+        //Nothing to return, reported to the listener without a score
+        if (solution == null && start == null) {
+            if (listener != null)
+                listener.onFinish(new SolverProgress("ILP", 1, System.nanoTime() - startTime, Double.NaN,
+                        Double.NaN, Double.NaN, Double.NaN, Double.NaN));
+            return null;
+        }
+
+        //LP solution to Solution object
+        Solution sol = new Solution(timeSlots, classRoomCount, courseCount);
+        if (solution != null) {
+            for (int t = 0; t < timeSlots; t++) {
+                int currentClassRoom = 0;
+                for (int c = 0; c < courseCount; c++) {
+                    if (solution[getT(t, c)] > 0.5){
+                        sol.set(t, currentClassRoom, c + 1);
+                        currentClassRoom++;
+                    }
+                }
+            }
+        }
+
+        //The start is returned if nothing better was found
+        if (start != null && (solution == null || evaluator.evaluate(start) > evaluator.evaluate(sol)))
+            sol = new Solution(start);
+        return finish(sol, evaluator, startTime);
+    }
+
+    private Solution finish(Solution sol, Evaluator evaluator, long startTime) {
+        // the LP solver gives no intermediate progress, only the final state is reported
+        if (listener != null) {
+            int score = evaluator.evaluate(sol);
+            listener.onFinish(new SolverProgress("ILP", 1, System.nanoTime() - startTime, score, score, Double.NaN,
+                    Double.NaN, Double.NaN));
+        }
+        return sol;
+    }
+
+    /**
+     * Builds the model, with the variables x[t][c] (lecture of course c+1 in
+     * time slot t) first and then C[sg][t] (conflicts of group sg in time slot t).
+     *
+     * @return model
+     */
+    LinearModel buildModel() {
+        final int groupCount = p.getGroupCount(); //Get groups
         final int timeSlots = p.getTimeslotsCount();
         final int classRoomCount = p.getClassroomCount();
         final int[] pCourses = p.getLecturesPerCourse(); //get the amount of lectures per course
         final int courseCount = p.getCourseCount();
-        int sg = 0; //Student group number
+
+        final boolean fix = symmetryBreaking == SymmetryBreaking.FIX_LARGEST_COURSE
+                || symmetryBreaking == SymmetryBreaking.ALL;
+        final boolean order = symmetryBreaking == SymmetryBreaking.ORDER_TIMESLOTS
+                || symmetryBreaking == SymmetryBreaking.ALL;
+        final int largest = largestCourse();
+        final int[] blocks = interchangeableTimeslots();
+        final boolean monotone = fix && largest >= 0 && blocks.length > 2;
+        final double cutoff = start != null ? objective(start) : Double.NaN;
+        int pairs = 0;  // consecutive interchangeable time slots
+        for (int b = 0; b + 1 < blocks.length; b++)
+            pairs += blocks[b+1] - blocks[b] - 1;
+
+        // exact sizes, so that the arrays of the model are never grown
+        int rows = groupCount * timeSlots + courseCount + timeSlots;
+        int nonZeros = 2 * timeSlots * courseCount;
+        for (int sg = 0; sg < groupCount; sg++)
+            nonZeros += timeSlots * (1 + p.getGroupCourses(sg).length);
+        if (monotone) {
+            rows += pairs;
+            nonZeros += 2 * pairs;
+        }
+        if (order) {
+            rows += pairs;
+            nonZeros += 2 * courseCount * pairs;
+        }
+        if (!Double.isNaN(cutoff)) {
+            rows++;
+            nonZeros += groupCount * timeSlots;
+        }
+        final LinearModel model = new LinearModel(timeSlots * courseCount + groupCount * timeSlots, rows, nonZeros);
 
         //StudentGroups:
-        for (Map.Entry<List<Integer>, Integer> entry : map.entrySet()) {
-            final int SGCount = entry.getValue();
-            final List<Integer> courses = entry.getKey();
+        for (int sg = 0; sg < groupCount; sg++) { //Student group number
+            final int SGCount = p.getGroupSize(sg);
+            final int[] courses = p.getGroupCourses(sg);
 
             for (int t = 0; t < timeSlots; t++) {
-                final String constraint = getC(sg, t); // Since the solver uses names, want the names to be the same/accurate.
-                lpw.plus(constraint, SGCount);//Objective function |SG| (Cij)
-                lpw.addConstraint("pos"+t+"sg"+sg, 0, "<=").plus(constraint);//New constraint, Cij >= 0
-                lpw.setInteger(constraint);//Cij is an integer variable
+                final int conflict = getC(sg, t);
+                model.setObjective(conflict, SGCount);//Objective function |SG| (Cij)
+                model.setInteger(conflict, 0);//Cij >= 0 is an integer variable
                 //Constraints that will increase the obj function the more conflicts there are
-                final LPWizardConstraint currentConst = lpw.addConstraint("const#"+constraint, 1, ">=");
-                currentConst.plus(constraint, -1);
-                for (final int course: courses){
-                    final String courseName = getT(t, course);
-                    currentConst.plus(courseName, 1);
-                    lpw.setBoolean(courseName);
-                }
+                final int currentConst = model.addLessOrEqual(1);
+                model.add(currentConst, conflict, -1);
+                for (final int course: courses)
+                    model.add(currentConst, getT(t, course - 1), 1);  // course IDs are 1-based
             }
-            sg++;
         }
 
         //Constraint so that the amount of lectures per course is equal to the amount given in the problem set.
         for (int c = 0; c < courseCount; c++) {
-            final LPWizardConstraint courseConst = lpw.addConstraint("cCourse"+c, pCourses[c], "=");
+            final int courseConst = model.addEqual(pCourses[c]);
             for (int t = 0; t < timeSlots; t++) {
-                courseConst.plus(getT(t, c));
+                model.add(courseConst, getT(t, c), 1);
+                model.setBinary(getT(t, c));
             }
-            courseConst.setAllVariablesBoolean();
         }
 
         //Constraint so that there may not be more lectures than there are classrooms for a time slot t.
         for (int t = 0; t < timeSlots; t++) {
-            final LPWizardConstraint classRoomConst = lpw.addConstraint("crC"+t, classRoomCount, ">=");
+            final int classRoomConst = model.addLessOrEqual(classRoomCount);
             for (int c = 0; c < courseCount; c++) {
-                classRoomConst.plus(getT(t,c));
+                model.add(classRoomConst, getT(t, c), 1);
+            }
+        }
+
+        //Symmetry breaking, only between time slots of the same block
+        if (fix && largest >= 0) {
+            if (!monotone) {
+                //All the time slots are interchangeable: the lectures of the largest course are in the first ones
+                for (int t = 0; t < Math.min(pCourses[largest], timeSlots); t++)
+                    model.setLowerBound(getT(t, largest), 1);
+            } else {
+                //In each block, the time slots with the largest course come first: x[t][c] >= x[t+1][c]
+                for (int b = 0; b + 1 < blocks.length; b++) {
+                    for (int t = blocks[b]; t + 1 < blocks[b+1]; t++) {
+                        final int monotoneConst = model.addGreaterOrEqual(0);
+                        model.add(monotoneConst, getT(t, largest), 1);
+                        model.add(monotoneConst, getT(t + 1, largest), -1);
+                    }
+                }
+            }
+        }
+        if (order) {
+            //Weight 1 for each lecture (count), more than all the others together for the largest course if it comes first
+            final double[] weights = new double[courseCount];
+            for (int c = 0; c < courseCount; c++)
+                weights[c] = 1;
+            if (fix && largest >= 0)
+                weights[largest] = courseCount + 1;
+            //In each block, sum_c w[c] x[t][c] >= sum_c w[c] x[t+1][c]
+            for (int b = 0; b + 1 < blocks.length; b++) {
+                for (int t = blocks[b]; t + 1 < blocks[b+1]; t++) {
+                    final int orderConst = model.addGreaterOrEqual(0);
+                    for (int c = 0; c < courseCount; c++) {
+                        model.add(orderConst, getT(t, c), weights[c]);
+                        model.add(orderConst, getT(t + 1, c), -weights[c]);
+                    }
+                }
             }
-            classRoomConst.setAllVariablesBoolean();
+        }
+
+        //Only solutions better than the start: the objective is integer, so at most its objective - 1
+        if (!Double.isNaN(cutoff)) {
+            final int cutoffConst = model.addLessOrEqual(cutoff - 1);
+            for (int sg = 0; sg < groupCount; sg++)
+                for (int t = 0; t < timeSlots; t++)
+                    model.add(cutoffConst, getC(sg, t), p.getGroupSize(sg));
         }
 
         //Minimize the objective function
-        lpw.setMinProblem(true);
-        //lpw.setAllVariablesInteger();
-        //Solver
-        LPSolution solution = lpw.solve();
-        //DEBUGGING tools
-//        System.out.println(lpw.getLP().convertToCPLEX());
-//        System.out.println("solution");
-//        System.out.println(solution);
-//        System.out.println(solution.getBoolean(getT(0, 0)));
+        model.setMinimize(true);
+        return model;
+    }
 
-        //LP solution to Solution object
-        int[][] sol = new int[timeSlots][classRoomCount];
+    public void setListener(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    public SymmetryBreaking getSymmetryBreaking() {
+        return symmetryBreaking;
+    }
+
+    /**
+     * Sets the symmetry breaking constraints added to the model (none by
+     * default).
+     *
+     * @param symmetryBreaking symmetry breaking
+     */
+    public void setSymmetryBreaking(SymmetryBreaking symmetryBreaking) {
+        this.symmetryBreaking = symmetryBreaking;
+    }
+
+    public long getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * Sets the time limit of the solver (none by default). When it is reached,
+     * the best integer solution found so far is returned.
+     *
+     * @param maxTime maximum time in ms, 0 for no limit
+     */
+    public void setMaxTime(long maxTime) {
+        if (maxTime < 0)
+            throw new IllegalArgumentException("The time limit cannot be negative");
+        this.maxTime = maxTime;
+    }
+
+    public double getGap() {
+        return gap;
+    }
+
+    /**
+     * Sets the relative gap between the best integer solution and the bound at
+     * which the solver stops (0 by default, i.e. up to the optimum).
+     *
+     * @param gap relative gap, e.g. 0.05 for 5%
+     */
+    public void setGap(double gap) {
+        if (gap < 0)
+            throw new IllegalArgumentException("The gap cannot be negative");
+        this.gap = gap;
+    }
+
+    public Solution getStart() {
+        return start;
+    }
+
+    /**
+     * Sets a starting schedule, e.g. found by a heuristic (none by default). If
+     * it satisfies the constraints of the model, only better solutions are
+     * searched; in any case, it is returned if the solver finds nothing better.
+     *
+     * @param start schedule of the same problem, or null
+     */
+    public void setStart(Solution start) {
+        if (start != null && (start.getTimeslotCount() != p.getTimeslotsCount()
+                || start.getClassroomCount() != p.getClassroomCount()))
+            throw new IllegalArgumentException("The start is not a schedule of the problem");
+        this.start = start;
+    }
+
+    /**
+     * Computes the objective of a schedule in the model.
+     *
+     * @return weighted number of conflicts, or NaN if the schedule does not
+     *         satisfy the constraints of the model
+     */
+    private double objective(Solution s) {
+        final int timeSlots = p.getTimeslotsCount();
+        final int courseCount = p.getCourseCount();
+        final boolean[] x = new boolean[timeSlots * courseCount];
+        final int[] lectures = new int[courseCount];
         for (int t = 0; t < timeSlots; t++) {
-            int currentClassRoom = 0;
-            for (int c = 0; c < courseCount; c++) {
-                if (solution.getBoolean(getT(t, c))){
-                    sol[t][currentClassRoom] = c + 1;
-                    currentClassRoom++;
-                }
+            for (int cl = 0; cl < p.getClassroomCount(); cl++) {
+                final int course = s.get(t, cl);
+                if (course == 0)
+                    continue;
+                if (x[getT(t, course - 1)])
+                    return Double.NaN;  // two lectures of the same course in the time slot
+                x[getT(t, course - 1)] = true;
+                lectures[course - 1]++;
+            }
+        }
+        for (int c = 0; c < courseCount; c++)
+            if (lectures[c] != p.getLecturesPerCourse()[c])
+                return Double.NaN;
+
+        double objective = 0;
+        for (int sg = 0; sg < p.getGroupCount(); sg++) {
+            for (int t = 0; t < timeSlots; t++) {
+                int taken = 0;
+                for (final int course : p.getGroupCourses(sg))
+                    if (x[getT(t, course - 1)])
+                        taken++;
+                objective += p.getGroupSize(sg) * Math.max(0, taken - 1);
             }
         }
+        return objective;
+    }
+
+    /**
+     * Splits the time slots in blocks of interchangeable ones. The model does
+     * not distinguish the days, so all of them are interchangeable; with
+     * constraints per day, only the time slots of the same day would be (one
+     * block per day).
+     *
+     * @return start of each block, followed by the number of time slots
+     */
+    private int[] interchangeableTimeslots() {
+        return new int[] { 0, p.getTimeslotsCount() };
+    }
 
-        return new Solution(sol);
+    // course (0-based) with the most lectures, the first one in case of ties, -1 if no course has lectures
+    private int largestCourse() {
+        final int[] pCourses = p.getLecturesPerCourse();
+        int largest = -1;
+        for (int c = 0; c < pCourses.length; c++)
+            if (pCourses[c] > 0 && (largest < 0 || pCourses[c] > pCourses[largest]))
+                largest = c;
+        return largest;
     }
 
-    private String getT(final int time, final int course){
-        return time + "t" + course;
+    // index of x[t][c], c is 0-based
+    private int getT(final int time, final int course){
+        return time * p.getCourseCount() + course;
     }
-    private String getC(final int i, final int j){
-        return i + "c" + j;
+    // index of C[i][j], after all the x variables
+    private int getC(final int i, final int j){
+        return p.getTimeslotsCount() * p.getCourseCount() + i * p.getTimeslotsCount() + j;
     }
 }
\ No newline at end of file
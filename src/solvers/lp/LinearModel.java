@@ -0,0 +1,244 @@
+package solvers.lp;
+
+import java.util.Arrays;
+
+import org.gnu.glpk.GlpkSolver;
+
+import scpsolver.lpsolver.SolverFactory;
+
+/**
+ * Mixed integer linear program with variables and constraints identified by
+ * dense integer indices. The constraint matrix is kept in coordinate form in
+ * primitive arrays (row, column, value of each non-zero coefficient) and is
+ * loaded into GLPK in one batch, without naming the variables and without
+ * building a dense row per constraint.
+ */
+class LinearModel {
+	private final int columnCount;
+	private final double[] objective;
+	private final double[] lowerBounds;
+	private final double[] upperBounds;
+	private final boolean[] integer;
+
+	// constraints, GLPK type and bounds
+	private int rowCount;
+	private int[] rowTypes;
+	private double[] rowLowerBounds;
+	private double[] rowUpperBounds;
+
+	// non-zero coefficients, 1-based as GLPK wants them (index 0 is unused)
+	private int nonZeroCount;
+	private int[] rows;
+	private int[] columns;
+	private double[] values;
+
+	private boolean minimize = true;
+	private double timeLimit;
+	private double gap;
+
+	// relative MIP gap, supported by GLPK but not exposed by the binding
+	private static final int LPX_K_MIPGAP = 331;
+
+	/**
+	 * @param columnCount number of variables, continuous and non-negative by
+	 *                    default
+	 * @param rowCapacity expected number of constraints
+	 * @param nonZeroCapacity expected number of non-zero coefficients
+	 */
+	LinearModel(int columnCount, int rowCapacity, int nonZeroCapacity) {
+		this.columnCount = columnCount;
+		this.rowTypes = new int[Math.max(1, rowCapacity)];
+		this.rowLowerBounds = new double[rowTypes.length];
+		this.rowUpperBounds = new double[rowTypes.length];
+		this.rows = new int[nonZeroCapacity + 1];
+		this.columns = new int[rows.length];
+		this.values = new double[rows.length];
+		this.objective = new double[columnCount];
+		this.lowerBounds = new double[columnCount];
+		this.upperBounds = new double[columnCount];
+		this.integer = new boolean[columnCount];
+		Arrays.fill(upperBounds, Double.POSITIVE_INFINITY);
+	}
+
+	int getColumnCount() {
+		return columnCount;
+	}
+
+	int getRowCount() {
+		return rowCount;
+	}
+
+	int getNonZeroCount() {
+		return nonZeroCount;
+	}
+
+	void setMinimize(boolean minimize) {
+		this.minimize = minimize;
+	}
+
+	/**
+	 * Sets the time limit of the solver.
+	 *
+	 * @param timeLimit time limit in seconds, 0 for no limit
+	 */
+	void setTimeLimit(double timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 * Sets the relative gap between the best integer solution and the best
+	 * bound at which branch and bound stops.
+	 *
+	 * @param gap relative gap, 0 to prove optimality
+	 */
+	void setGap(double gap) {
+		this.gap = gap;
+	}
+
+	void setObjective(int column, double coefficient) {
+		objective[column] = coefficient;
+	}
+
+	void setBinary(int column) {
+		integer[column] = true;
+		lowerBounds[column] = 0;
+		upperBounds[column] = 1;
+	}
+
+	void setLowerBound(int column, double lowerBound) {
+		lowerBounds[column] = lowerBound;
+	}
+
+	void setInteger(int column, double lowerBound) {
+		integer[column] = true;
+		lowerBounds[column] = lowerBound;
+		upperBounds[column] = Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Adds a constraint sum &lt;= upperBound, the coefficients are added with
+	 * {@link #add(int, int, double)}.
+	 *
+	 * @return index of the constraint
+	 */
+	int addLessOrEqual(double upperBound) {
+		return addRow(GlpkSolver.LPX_UP, 0, upperBound);
+	}
+
+	/**
+	 * Adds a constraint sum = value.
+	 *
+	 * @return index of the constraint
+	 */
+	int addEqual(double value) {
+		return addRow(GlpkSolver.LPX_FX, value, value);
+	}
+
+	/**
+	 * Adds a constraint sum &gt;= lowerBound.
+	 *
+	 * @return index of the constraint
+	 */
+	int addGreaterOrEqual(double lowerBound) {
+		return addRow(GlpkSolver.LPX_LO, lowerBound, 0);
+	}
+
+	private int addRow(int type, double lowerBound, double upperBound) {
+		if (rowCount == rowTypes.length) {
+			rowTypes = Arrays.copyOf(rowTypes, 2 * rowCount);
+			rowLowerBounds = Arrays.copyOf(rowLowerBounds, 2 * rowCount);
+			rowUpperBounds = Arrays.copyOf(rowUpperBounds, 2 * rowCount);
+		}
+		rowTypes[rowCount] = type;
+		rowLowerBounds[rowCount] = lowerBound;
+		rowUpperBounds[rowCount] = upperBound;
+		return rowCount++;
+	}
+
+	/**
+	 * Adds a coefficient to a constraint. The same pair of constraint and
+	 * variable must not be added twice.
+	 *
+	 * @param row index of the constraint
+	 * @param column index of the variable
+	 * @param value coefficient
+	 */
+	void add(int row, int column, double value) {
+		int k = ++nonZeroCount;
+		if (k == rows.length) {
+			rows = Arrays.copyOf(rows, 2 * k);
+			columns = Arrays.copyOf(columns, 2 * k);
+			values = Arrays.copyOf(values, 2 * k);
+		}
+		rows[k] = row + 1;
+		columns[k] = column + 1;
+		values[k] = value;
+	}
+
+	/**
+	 * Solves the problem with GLPK (simplex for the relaxation, then branch and
+	 * bound). If the time limit or the gap is reached, the best integer solution
+	 * found so far is returned.
+	 *
+	 * @return value of each variable, by index, or null if no integer solution
+	 *         was found
+	 */
+	double[] solve() {
+		long startTime = System.nanoTime();
+
+		// loads the native library
+		if (SolverFactory.getSolver("GLPK") == null)
+			throw new IllegalStateException("GLPK is not available");
+
+		GlpkSolver glpk = new GlpkSolver();
+		glpk.enablePrints(false);
+		glpk.setClss(GlpkSolver.LPX_MIP);
+		glpk.setObjDir(minimize ? GlpkSolver.LPX_MIN : GlpkSolver.LPX_MAX);
+		if (timeLimit > 0)
+			glpk.setRealParm(GlpkSolver.LPX_K_TMLIM, timeLimit);
+		if (gap > 0)
+			glpk.setRealParm(LPX_K_MIPGAP, gap);
+
+		if (columnCount > 0)
+			glpk.addCols(columnCount);
+		for (int j=0; j<columnCount; j++) {
+			glpk.setObjCoef(j + 1, objective[j]);
+			if (upperBounds[j] == Double.POSITIVE_INFINITY)
+				glpk.setColBnds(j + 1, GlpkSolver.LPX_LO, lowerBounds[j], 0);
+			else if (lowerBounds[j] == upperBounds[j])
+				glpk.setColBnds(j + 1, GlpkSolver.LPX_FX, lowerBounds[j], upperBounds[j]);
+			else
+				glpk.setColBnds(j + 1, GlpkSolver.LPX_DB, lowerBounds[j], upperBounds[j]);
+			glpk.setColKind(j + 1, integer[j] ? GlpkSolver.LPX_IV : GlpkSolver.LPX_CV);
+		}
+
+		if (rowCount > 0)
+			glpk.addRows(rowCount);
+		for (int i=0; i<rowCount; i++)
+			glpk.setRowBnds(i + 1, rowTypes[i], rowLowerBounds[i], rowUpperBounds[i]);
+
+		// the whole matrix at once
+		glpk.loadMatrix(nonZeroCount, rows, columns, values);
+
+		// branch and bound needs the optimal relaxation
+		if (glpk.simplex() != GlpkSolver.LPX_E_OK)
+			return null;
+		// the time limit applies to each call, branch and bound gets what is left
+		if (timeLimit > 0) {
+			double remaining = timeLimit - (System.nanoTime() - startTime) / 1e9;
+			if (remaining <= 0)
+				return null;
+			glpk.setRealParm(GlpkSolver.LPX_K_TMLIM, remaining);
+		}
+		glpk.integer();
+		int status = glpk.mipStatus();
+		if (status != GlpkSolver.LPX_I_OPT && status != GlpkSolver.LPX_I_FEAS)
+			return null;
+
+		double[] solution = new double[columnCount];
+		for (int j=0; j<columnCount; j++)
+			solution[j] = glpk.mipColVal(j + 1);
+		return solution;
+	}
+
+}
@@ -0,0 +1,308 @@
+package solvers.tabu;
+
+import java.util.SplittableRandom;
+
+import generator.CompiledProblem;
+import generator.Evaluator;
+import generator.IncrementalEvaluator;
+import generator.Problem;
+import generator.Solution;
+import solvers.Solver;
+import solvers.SolverListener;
+import solvers.SolverProgress;
+
+/**
+ * Tabu search with a conflict-directed neighbourhood. At each iteration, only
+ * the moves touching conflicting lectures are evaluated:
+ * <ul>
+ * <li>infeasible lectures (another lecture of the same course in the same time
+ * slot) and lectures of over-scheduled courses: removed or moved to another
+ * time slot</li>
+ * <li>lectures overlapping with other lectures of some student group: moved to
+ * another time slot</li>
+ * <li>under-scheduled courses: added in an empty cell</li>
+ * </ul>
+ * The best move is applied even if it worsens the score. Then, moving the same
+ * course back to the time slot it left is tabu for some iterations, unless it
+ * leads to a new best score (aspiration).
+ */
+public class Tabu implements Solver {
+	private final CompiledProblem problem;
+	private final int tenure;
+	private final long maxTime;
+	private final long maxIterations;
+	private final long seed;
+	private SolverListener listener;
+
+	private final int timeslotCount;
+	private final int classroomCount;
+	private final int courseCount;
+
+	// random cells inspected to find conflicting lectures, and maximum number of conflicting lectures per iteration
+	private static final int SAMPLED_CELLS = 64;
+	private static final int MAX_CONFLICTS = 8;
+
+	// time slots tried for each conflicting lecture, and empty cells tried for each under-scheduled course
+	private static final int SAMPLED_TIMESLOTS = 16;
+	private static final int SAMPLED_EMPTY_CELLS = 8;
+
+	// under-scheduled courses considered per iteration
+	private static final int MAX_MISSING = 8;
+
+	// the clock is read every CHECK_INTERVAL iterations
+	private static final int CHECK_INTERVAL = 16;
+
+	private static final int DEFAULT_TENURE = 10;
+
+	// iterations between two progress reports
+	private static final int PROGRESS_INTERVAL = 64;
+
+	// the move found as best in the current iteration
+	private static final int NONE = 0;
+	private static final int SWAP = 1;
+	private static final int SET = 2;
+	private int moveType;
+	private int moveT1;
+	private int moveCl1;
+	private int moveT2;
+	private int moveCl2;
+	private int moveCourse;
+	private int moveDelta;
+	private int moveTies;
+
+	// iteration until which moving a course to a time slot is tabu ([course-1][t])
+	private long[][] tabuUntil;
+
+	// created from the seed by solve(), so that every call gives the same run
+	private SplittableRandom random;
+
+	public Tabu(Problem p, Evaluator e, long maxTime, long seed) {
+		this(p, e, DEFAULT_TENURE, maxTime, 0, seed);
+	}
+
+	/**
+	 * @param p problem to solve
+	 * @param e evaluator of the problem
+	 * @param tenure minimum number of iterations a move stays tabu, a random
+	 *               number up to tenure is added to avoid cycles, at least 0
+	 * @param maxTime maximum time in ms, 0 for no time limit
+	 * @param maxIterations maximum number of iterations, 0 for no limit
+	 * @param seed seed
+	 */
+	public Tabu(Problem p, Evaluator e, int tenure, long maxTime, long maxIterations, long seed) {
+		if (maxTime <= 0 && maxIterations <= 0)
+			throw new IllegalArgumentException("A time or iteration budget is needed");
+		if (tenure < 0)
+			throw new IllegalArgumentException("The tenure cannot be negative");
+		this.problem = e.getCompiledProblem();
+		this.tenure = tenure;
+		this.maxTime = maxTime;
+		this.maxIterations = maxIterations;
+		this.seed = seed;
+		this.timeslotCount = problem.getTimeslotsCount();
+		this.classroomCount = problem.getClassroomCount();
+		this.courseCount = problem.getCourseCount();
+	}
+
+	public Solution solve() {
+		long startTime = System.nanoTime();
+		long timeBudget = maxTime * 1_000_000;
+		int[] desiredLectures = problem.getLecturesPerCourse();
+		int[] conflicts = new int[MAX_CONFLICTS];
+		int[] missing = new int[courseCount];
+		random = new SplittableRandom(seed);
+
+		Solution schedule = init();
+		IncrementalEvaluator ie = new IncrementalEvaluator(problem);
+		ie.bind(schedule);
+		Solution bestSchedule = new Solution(schedule);
+		int bestScore = ie.getScore();
+		tabuUntil = new long[courseCount][timeslotCount];
+
+		long iteration;
+		for (iteration=1; ; iteration++) {
+			if (maxIterations > 0 && iteration > maxIterations)
+				break;
+			if (timeBudget > 0 && iteration % CHECK_INTERVAL == 0 && System.nanoTime() - startTime >= timeBudget)
+				break;
+
+			int score = ie.getScore();
+			moveType = NONE;
+
+			// sample the conflicting lectures
+			int conflictCount = 0;
+			for (int i=0; i<SAMPLED_CELLS && conflictCount<MAX_CONFLICTS; i++) {
+				int t = random.nextInt(timeslotCount);
+				int cl = random.nextInt(classroomCount);
+				if (isConflicting(ie, t, cl))
+					conflicts[conflictCount++] = t * classroomCount + cl;
+			}
+
+			// moves of the conflicting lectures
+			for (int i=0; i<conflictCount; i++) {
+				int t = conflicts[i] / classroomCount;
+				int cl = conflicts[i] % classroomCount;
+				int course = schedule.get(t, cl);
+
+				if (ie.getLecturesInTimeslot(t, course) > 1
+						|| ie.getScheduledLectures(course) > desiredLectures[course-1])
+					consider(SET, t, cl, t, cl, 0, ie.deltaSet(t, cl, 0));
+
+				for (int j=0; j<SAMPLED_TIMESLOTS; j++) {
+					int t2 = random.nextInt(timeslotCount);
+					int cl2 = random.nextInt(classroomCount);
+					if (t2 == t)
+						continue;
+					int other = schedule.get(t2, cl2);
+					if (isTabu(course, t2, iteration) || (other != 0 && isTabu(other, t, iteration))) {
+						// evaluated only for aspiration
+						int delta = ie.deltaSwap(t, cl, t2, cl2);
+						if (score + delta > bestScore)
+							consider(SWAP, t, cl, t2, cl2, 0, delta);
+					} else {
+						consider(SWAP, t, cl, t2, cl2, 0, ie.deltaSwap(t, cl, t2, cl2));
+					}
+				}
+			}
+
+			// additions of under-scheduled courses, starting from a random course
+			int missingCount = 0;
+			int offset = random.nextInt(courseCount);
+			for (int i=0; i<courseCount && missingCount<MAX_MISSING; i++) {
+				int course = (offset + i) % courseCount + 1;
+				if (ie.getScheduledLectures(course) < desiredLectures[course-1])
+					missing[missingCount++] = course;
+			}
+			for (int i=0; i<missingCount; i++) {
+				int course = missing[i];
+				for (int j=0; j<SAMPLED_EMPTY_CELLS; j++) {
+					int t = random.nextInt(timeslotCount);
+					int cl = random.nextInt(classroomCount);
+					if (schedule.get(t, cl) != 0)
+						continue;
+					int delta = ie.deltaSet(t, cl, course);
+					if (!isTabu(course, t, iteration) || score + delta > bestScore)
+						consider(SET, t, cl, t, cl, course, delta);
+				}
+			}
+
+			// no conflict found: random swap to diversify
+			if (moveType == NONE && conflictCount == 0 && missingCount == 0) {
+				int t1 = random.nextInt(timeslotCount);
+				int cl1 = random.nextInt(classroomCount);
+				int t2 = random.nextInt(timeslotCount);
+				int cl2 = random.nextInt(classroomCount);
+				consider(SWAP, t1, cl1, t2, cl2, 0, ie.deltaSwap(t1, cl1, t2, cl2));
+			}
+
+			// apply the best move, making tabu to move the courses back
+			if (moveType == SWAP) {
+				int course1 = schedule.get(moveT1, moveCl1);
+				int course2 = schedule.get(moveT2, moveCl2);
+				ie.applySwap(moveT1, moveCl1, moveT2, moveCl2);
+				makeTabu(course1, moveT1, iteration);
+				makeTabu(course2, moveT2, iteration);
+			} else if (moveType == SET) {
+				int old = schedule.get(moveT1, moveCl1);
+				ie.applySet(moveT1, moveCl1, moveCourse);
+				makeTabu(old, moveT1, iteration);
+			}
+
+			if (ie.getScore() > bestScore) {
+				bestScore = ie.getScore();
+				bestSchedule.copyFrom(schedule);
+			}
+
+			if (listener != null && iteration % PROGRESS_INTERVAL == 0)
+				listener.onProgress(new SolverProgress("Tabu", iteration, System.nanoTime() - startTime,
+						ie.getScore(), bestScore, Double.NaN, Double.NaN, Double.NaN));
+		}
+
+		if (listener != null)
+			listener.onFinish(new SolverProgress("Tabu", iteration - 1, System.nanoTime() - startTime, ie.getScore(),
+					bestScore, Double.NaN, Double.NaN, Double.NaN));
+		return bestSchedule;
+	}
+
+	public void setListener(SolverListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Keeps the move if it is the best of the iteration so far, breaking ties at
+	 * random.
+	 */
+	private void consider(int type, int t1, int cl1, int t2, int cl2, int course, int delta) {
+		if (moveType != NONE && delta < moveDelta)
+			return;
+		if (moveType != NONE && delta == moveDelta) {
+			moveTies++;
+			if (random.nextInt(moveTies) != 0)
+				return;
+		} else {
+			moveTies = 1;
+		}
+		moveType = type;
+		moveT1 = t1;
+		moveCl1 = cl1;
+		moveT2 = t2;
+		moveCl2 = cl2;
+		moveCourse = course;
+		moveDelta = delta;
+	}
+
+	/**
+	 * Checks if a lecture is infeasible, of an over-scheduled course or
+	 * overlapping with lectures of another course for some student group.
+	 */
+	private boolean isConflicting(IncrementalEvaluator ie, int t, int cl) {
+		int course = ie.getSchedule().get(t, cl);
+		if (course == 0)
+			return false;
+		if (ie.getLecturesInTimeslot(t, course) > 1
+				|| ie.getScheduledLectures(course) > problem.getLecturesPerCourse()[course-1])
+			return true;
+		for (int g : problem.getCourseGroups(course))
+			if (ie.getGroupCoverage(t, g) > 1)
+				return true;
+		return false;
+	}
+
+	private boolean isTabu(int course, int t, long iteration) {
+		return course != 0 && tabuUntil[course-1][t] > iteration;
+	}
+
+	private void makeTabu(int course, int t, long iteration) {
+		if (course != 0)
+			tabuUntil[course-1][t] = iteration + tenure + random.nextInt(tenure + 1);
+	}
+
+	/**
+	 * Generates a random schedule with all the lectures, placed in random empty
+	 * cells (if they fit).
+	 *
+	 * @return schedule
+	 */
+	private Solution init() {
+		Solution schedule = new Solution(timeslotCount, classroomCount, courseCount);
+		int cellCount = timeslotCount * classroomCount;
+		int[] cells = new int[cellCount];
+		for (int i=0; i<cellCount; i++)
+			cells[i] = i;
+
+		// partial Fisher-Yates shuffle, one random empty cell per lecture
+		int next = 0;
+		for (int c=0; c<courseCount; c++) {
+			for (int l=0; l<problem.getLecturesPerCourse()[c] && next<cellCount; l++) {
+				int k = next + random.nextInt(cellCount - next);
+				int cell = cells[k];
+				cells[k] = cells[next];
+				cells[next++] = cell;
+				schedule.set(cell / classroomCount, cell % classroomCount, c + 1);
+			}
+		}
+
+		return schedule;
+	}
+
+}
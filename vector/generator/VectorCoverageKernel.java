@@ -0,0 +1,68 @@
+package generator;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation of the coverage with the Vector API (incubator module
+ * jdk.incubator.vector). Each vector holds one mask word of several groups, so
+ * that the groups are tested in parallel lanes.
+ * 
+ * This class is in its own source root, compiled only when the module is
+ * available, and must be loaded only through {@link #create(CompiledProblem)},
+ * which the evaluator calls reflectively: when the class or the module is
+ * missing at runtime the loading fails and the evaluator falls back to
+ * {@link BitsetCoverageKernel}.
+ */
+class VectorCoverageKernel implements CoverageKernel {
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+	
+	private final int maskWords;
+	
+	// number of groups rounded up to a multiple of the vector length
+	private final int paddedGroupCount;
+	
+	// group masks, word-major: word w of group g is at w*paddedGroupCount+g
+	private final long[] groupMasks;
+	
+	// group sizes, 0 for the padding
+	private final long[] groupSizes;
+	
+	private VectorCoverageKernel(CompiledProblem problem) {
+		int groupCount = problem.getGroupCount();
+		this.maskWords = problem.getMaskWords();
+		this.paddedGroupCount = SPECIES.loopBound(groupCount + SPECIES.length() - 1);
+		this.groupMasks = new long[maskWords * paddedGroupCount];
+		this.groupSizes = new long[paddedGroupCount];
+		
+		for (int g=0; g<groupCount; g++) {
+			long[] groupMask = problem.getGroupMask(g);
+			for (int w=0; w<maskWords; w++)
+				groupMasks[w * paddedGroupCount + g] = groupMask[w];
+			groupSizes[g] = problem.getGroupSize(g);
+		}
+	}
+	
+	static CoverageKernel create(CompiledProblem problem) {
+		return new VectorCoverageKernel(problem);
+	}
+
+	@Override
+	public int coveredGroupSize(long[] timeslotMask) {
+		LongVector total = LongVector.zero(SPECIES);
+		
+		for (int g=0; g<paddedGroupCount; g+=SPECIES.length()) {
+			LongVector intersection = LongVector.zero(SPECIES);
+			for (int w=0; w<maskWords; w++)
+				intersection = intersection.or(
+						LongVector.fromArray(SPECIES, groupMasks, w * paddedGroupCount + g).and(timeslotMask[w]));
+			VectorMask<Long> covered = intersection.compare(VectorOperators.NE, 0);
+			total = total.add(LongVector.fromArray(SPECIES, groupSizes, g), covered);
+		}
+		
+		return (int) total.reduceLanes(VectorOperators.ADD);
+	}
+	
+}